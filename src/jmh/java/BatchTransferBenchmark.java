@@ -0,0 +1,69 @@
+package jmh.java;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionResult;
+import main.java.domain.TransferInstruction;
+import main.java.services.TransactionManagerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// A 100K-transfer clearing batch, half of it cross-currency, applied through transferBatch and through one
+// transfer call per instruction.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BatchTransferBenchmark {
+    private static final int ACCOUNTS_PER_CURRENCY = 10_000;
+    private static final int BATCH_SIZE = 100_000;
+
+    private TransactionManagerService service;
+    private List<TransferInstruction> instructions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkAccounts.seedChecking(ACCOUNTS_PER_CURRENCY);
+        service = new TransactionManagerService();
+
+        SplittableRandom random = new SplittableRandom(42);
+        MoneyModel amount = new MoneyModel(0.01, CurrencyType.RON);
+        instructions = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            int from = random.nextInt(ACCOUNTS_PER_CURRENCY);
+            int to = (from + 1 + random.nextInt(ACCOUNTS_PER_CURRENCY - 1)) % ACCOUNTS_PER_CURRENCY;
+            CurrencyType toCurrency = i % 2 == 0 ? CurrencyType.RON : CurrencyType.EUR;
+            instructions.add(new TransferInstruction(BenchmarkAccounts.checkingId(CurrencyType.RON, from),
+                    BenchmarkAccounts.checkingId(toCurrency, to), amount));
+        }
+    }
+
+    @Benchmark
+    public List<TransactionResult> batch() {
+        return service.transferBatch(instructions);
+    }
+
+    @Benchmark
+    public void singleCalls(Blackhole blackhole) {
+        for (TransferInstruction instruction : instructions) {
+            blackhole.consume(service.transfer(instruction.getFromAccountId(), instruction.getToAccountId(), instruction.getAmount()));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package jmh.java;
+
+import main.java.domain.AccountModel;
+import main.java.domain.CapitalizationFrequency;
+import main.java.domain.CheckingAccountModel;
+import main.java.domain.CurrencyType;
+import main.java.domain.InterestRate;
+import main.java.domain.MoneyModel;
+import main.java.domain.SavingsAccountModel;
+import main.java.repository.AccountsRepository;
+import main.java.repository.Database;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import static main.java.seed.CardsSeedData.card1;
+
+// Seeds the account repository for the benchmarks. Each benchmark runs in its own forked JVM, so the shared
+// repository only ever holds the accounts of the benchmark being measured.
+final class BenchmarkAccounts {
+    static final double OPENING_BALANCE = 1_000_000_000;
+
+    private BenchmarkAccounts() {
+    }
+
+    static void clear() {
+        Database<AccountModel> accounts = AccountsRepository.INSTANCE;
+        for (AccountModel account : accounts.getAll()) {
+            accounts.remove(account.getId());
+        }
+    }
+
+    static String checkingId(CurrencyType currency, int index) {
+        return currency.name() + index;
+    }
+
+    static void seedChecking(int count) {
+        clear();
+        for (CurrencyType currency : CurrencyType.values()) {
+            for (int i = 0; i < count; i++) {
+                String id = checkingId(currency, i);
+                AccountsRepository.INSTANCE.add(id, new CheckingAccountModel(id, new MoneyModel(OPENING_BALANCE, currency), new ArrayList<>(), card1));
+            }
+        }
+    }
+
+    // Half monthly and half quarterly accounts, with the quarterly ones spread over the three months.
+    static void seedSavings(int count) {
+        clear();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < count; i++) {
+            boolean monthly = i % 2 == 0;
+            SavingsAccountModel account = new SavingsAccountModel(
+                    "SAVINGS" + i,
+                    new MoneyModel(1000, CurrencyType.RON),
+                    new ArrayList<>(),
+                    monthly ? InterestRate.ONE_MONTH_ACCOUNT : InterestRate.THREE_MONTH_ACCOUNT,
+                    monthly ? CapitalizationFrequency.MONTHLY : CapitalizationFrequency.QUARTERLY,
+                    monthly ? today : today.minusMonths(i % 3)
+            );
+            AccountsRepository.INSTANCE.add(account.getId(), account);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package jmh.java;
+
+import main.java.domain.AccountModel;
+import main.java.domain.CardModel;
+import main.java.domain.CheckingAccountModel;
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionModel;
+import main.java.repository.AccountsRepository;
+import main.java.services.CardManagerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Every thread authorizes against the same card. reserveAndRelease isolates the daily limit counter; the
+// withdraw benchmark goes through the whole card withdrawal, including the account lock and balance update.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class CardAuthorizationBenchmark {
+    private static final String ACCOUNT_ID = "HOT";
+    private static final MoneyModel AMOUNT = new MoneyModel(0.01, CurrencyType.RON);
+
+    private CardManagerService service;
+    private CardModel card;
+    private long today;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkAccounts.clear();
+        card = new CardModel(9999000011112222L, "Hot Card", 999, LocalDate.now().plusYears(5), LocalDate.now(), true, true,
+                BenchmarkAccounts.OPENING_BALANCE, BenchmarkAccounts.OPENING_BALANCE);
+        AccountModel account = new CheckingAccountModel(ACCOUNT_ID, new MoneyModel(BenchmarkAccounts.OPENING_BALANCE, CurrencyType.RON),
+                new ArrayList<>(), card);
+        AccountsRepository.INSTANCE.add(ACCOUNT_ID, account);
+        service = new CardManagerService();
+        today = LocalDate.now().toEpochDay();
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        boolean reserved = card.getUsage().tryWithdraw(today, 1, Long.MAX_VALUE);
+        card.getUsage().releaseWithdrawal(today, 1);
+        return reserved;
+    }
+
+    @Benchmark
+    public TransactionModel withdraw() {
+        return service.withdraw(ACCOUNT_ID, AMOUNT);
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends CardAuthorizationBenchmark {
+    }
+
+    @Threads(8)
+    public static class MultiThreaded extends CardAuthorizationBenchmark {
+    }
+}
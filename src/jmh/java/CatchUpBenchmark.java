@@ -0,0 +1,59 @@
+package jmh.java;
+
+import main.java.services.CapitalizationReport;
+import main.java.services.SavingsManagerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Catching up a year of capitalizations over a freshly seeded savings book, as twelve monthly runs or as one
+// twelve-month run. Each invocation starts from a new book, so it is measured as a single shot.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class CatchUpBenchmark {
+    private static final int MONTHS = 12;
+
+    @Param({"100000", "1000000"})
+    public int accounts;
+
+    @Param({"true", "false"})
+    public boolean useDueIndex;
+
+    private SavingsManagerService service;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        BenchmarkAccounts.seedSavings(accounts);
+        service = new SavingsManagerService(ForkJoinPool.commonPool(), 4096, useDueIndex);
+    }
+
+    @Benchmark
+    public CapitalizationReport monthlyRuns() {
+        CapitalizationReport report = null;
+        for (int month = 0; month < MONTHS; month++) {
+            report = service.passTime();
+        }
+        return report;
+    }
+
+    @Benchmark
+    public CapitalizationReport singleRun() {
+        return service.passTime(MONTHS);
+    }
+}
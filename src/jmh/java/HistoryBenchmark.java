@@ -0,0 +1,99 @@
+package jmh.java;
+
+import main.java.domain.AccountModel;
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionModel;
+import main.java.domain.TransactionPage;
+import main.java.domain.Turnover;
+import main.java.repository.AccountsRepository;
+import main.java.services.TransactionManagerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// retrieveTransactions on one account with a large history, one transaction per day going back in time.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"1000", "100000"})
+    public int historySize;
+
+    private TransactionManagerService service;
+    private String accountId;
+    private LocalDate lastWeek;
+    private LocalDate lastYear;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkAccounts.seedChecking(1);
+        accountId = BenchmarkAccounts.checkingId(CurrencyType.RON, 0);
+        AccountModel account = AccountsRepository.INSTANCE.get(accountId);
+
+        LocalDate first = LocalDate.now().minusDays(historySize);
+        for (int i = 0; i < historySize; i++) {
+            account.getHistory().append(new TransactionModel(UUID.randomUUID(), accountId, "OTHER", new MoneyModel(1, CurrencyType.RON), first.plusDays(i)));
+            AccountsRepository.ROLLUP_INDEX.of(account).record(first.plusDays(i), 100, 0, account.getBalance());
+        }
+        lastWeek = LocalDate.now().minusDays(7);
+        lastYear = LocalDate.now().minusYears(1);
+        service = new TransactionManagerService();
+    }
+
+    @Benchmark
+    public List<TransactionModel> retrieveAll() {
+        return service.retrieveTransactions(accountId);
+    }
+
+    @Benchmark
+    public TransactionPage retrieveFirstPage() {
+        return service.retrieveTransactions(accountId, null, null, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TransactionPage retrieveLastWeek() {
+        return service.retrieveTransactions(accountId, lastWeek, null, 0, PAGE_SIZE);
+    }
+
+    // Debits over the last year the way a caller had to before the daily rollups: fetch everything and sum.
+    @Benchmark
+    public long sumLastYearFromHistory() {
+        long sum = 0;
+        for (TransactionModel transaction : service.retrieveTransactions(accountId)) {
+            if (!transaction.getTimestamp().isBefore(lastYear)) {
+                sum += transaction.getAmount().getMinorUnits();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Turnover turnoverLastYear() {
+        return service.turnover(accountId, lastYear, null);
+    }
+
+    @Benchmark
+    public MoneyModel balanceAsOfLastYear() {
+        return service.balanceAsOf(accountId, lastYear);
+    }
+}
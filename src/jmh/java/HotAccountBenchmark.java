@@ -0,0 +1,98 @@
+package jmh.java;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionModel;
+import main.java.domain.TransactionResult;
+import main.java.services.PartitionedTransactionService;
+import main.java.services.TransactionManagerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Many customers paying a few merchant accounts, through the lock-based service and through the
+// single-writer partitions. The pipelined variant keeps PIPELINE transfers outstanding per client thread, the
+// way the asynchronous front end is used; the others wait for each transfer before sending the next.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+@Threads(4)
+public class HotAccountBenchmark {
+    private static final int CUSTOMERS = 10_000;
+    private static final int MERCHANTS = 4;
+    private static final int PIPELINE = 64;
+    private static final MoneyModel AMOUNT = new MoneyModel(0.01, CurrencyType.RON);
+
+    private TransactionManagerService lockedService;
+    private PartitionedTransactionService partitionedService;
+
+    @State(Scope.Thread)
+    public static class Payments {
+        private final SplittableRandom random = new SplittableRandom();
+        @SuppressWarnings("unchecked")
+        private final CompletableFuture<TransactionResult>[] outstanding = new CompletableFuture[PIPELINE];
+
+        String customer() {
+            return BenchmarkAccounts.checkingId(CurrencyType.RON, MERCHANTS + random.nextInt(CUSTOMERS - MERCHANTS));
+        }
+
+        String merchant() {
+            return BenchmarkAccounts.checkingId(CurrencyType.RON, random.nextInt(MERCHANTS));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkAccounts.seedChecking(CUSTOMERS);
+        lockedService = new TransactionManagerService();
+        partitionedService = new PartitionedTransactionService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        partitionedService.close();
+    }
+
+    @Benchmark
+    public TransactionModel lockedTransfer(Payments payments) {
+        return lockedService.transfer(payments.customer(), payments.merchant(), AMOUNT);
+    }
+
+    @Benchmark
+    public TransactionResult partitionedTransfer(Payments payments) {
+        return partitionedService.transfer(payments.customer(), payments.merchant(), AMOUNT).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE)
+    public int partitionedTransferPipelined(Payments payments) {
+        for (int i = 0; i < PIPELINE; i++) {
+            payments.outstanding[i] = partitionedService.transfer(payments.customer(), payments.merchant(), AMOUNT);
+        }
+        int accepted = 0;
+        for (CompletableFuture<TransactionResult> transfer : payments.outstanding) {
+            if (transfer.join().isAccepted()) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+}
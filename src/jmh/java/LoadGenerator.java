@@ -0,0 +1,77 @@
+package jmh.java;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionResult;
+import main.java.metrics.LatencyHistogram;
+import main.java.metrics.ServiceMetrics;
+import main.java.services.TransactionFrontEnd;
+import main.java.services.TransactionManagerService;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+// Drives TransactionFrontEnd with many simulated clients, each on its own virtual thread, sending requests
+// one after the other and waiting for every answer (70% transfers, 10% withdrawals, 15% balance checks, 5%
+// history pages). Reports throughput and the end-to-end latency seen by the clients, queueing included.
+//
+// java -cp target/benchmarks.jar jmh.java.LoadGenerator [clients] [requestsPerClient] [accountsPerCurrency]
+public class LoadGenerator {
+    private static final MoneyModel AMOUNT = new MoneyModel(0.01, CurrencyType.RON);
+
+    public static void main(String[] args) {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int accounts = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        BenchmarkAccounts.seedChecking(accounts);
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder rejected = new LongAdder();
+
+        long start = System.nanoTime();
+        try (TransactionFrontEnd frontEnd = new TransactionFrontEnd(new TransactionManagerService());
+             ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            ServiceMetrics.reset();
+            for (int client = 0; client < clients; client++) {
+                long seed = client;
+                clientThreads.execute(() -> runClient(frontEnd, new SplittableRandom(seed), requestsPerClient, accounts, latencies, rejected));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long requests = (long) clients * requestsPerClient;
+        System.out.printf("%d clients, %d requests in %.2f s: %.0f requests/s, %d rejected%n",
+                clients, requests, elapsed / 1e9, requests * 1e9 / elapsed, rejected.sum());
+        System.out.printf("client latency p50 %.1f us, p99 %.1f us, p999 %.1f us%n",
+                latencies.getValueAtPercentile(50) / 1e3, latencies.getValueAtPercentile(99) / 1e3, latencies.getValueAtPercentile(99.9) / 1e3);
+        System.out.print(ServiceMetrics.dumpText());
+    }
+
+    private static void runClient(TransactionFrontEnd frontEnd, SplittableRandom random, int requests, int accounts,
+                                  LatencyHistogram latencies, LongAdder rejected) {
+        for (int i = 0; i < requests; i++) {
+            String account = BenchmarkAccounts.checkingId(CurrencyType.RON, random.nextInt(accounts));
+            int kind = random.nextInt(100);
+            long start = System.nanoTime();
+            CompletableFuture<?> request;
+            if (kind < 70) {
+                int to = random.nextInt(accounts);
+                request = frontEnd.transfer(account, BenchmarkAccounts.checkingId(CurrencyType.EUR, to), AMOUNT);
+            } else if (kind < 80) {
+                request = frontEnd.withdraw(account, AMOUNT);
+            } else if (kind < 95) {
+                request = frontEnd.checkFunds(account);
+            } else {
+                request = frontEnd.retrieveTransactions(account, null, null, 0, 20);
+            }
+            Object result = request.join();
+            latencies.record(System.nanoTime() - start);
+            if (result instanceof TransactionResult transactionResult && !transactionResult.isAccepted()) {
+                rejected.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package jmh.java;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionModel;
+import main.java.services.TransactionManagerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// The cheapest instrumented operations with the service metrics switched on and off, so the recording cost
+// is not hidden behind the journal and history work of a transfer.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+@Threads(4)
+public abstract class MetricsOverheadBenchmark {
+    private static final int ACCOUNTS_PER_CURRENCY = 10_000;
+    private static final MoneyModel AMOUNT = new MoneyModel(0.01, CurrencyType.RON);
+
+    private TransactionManagerService service;
+
+    // Accounts are picked inside the measured call: a per-invocation setup would add its own timestamps and
+    // noise on the same scale as the overhead being measured.
+    @State(Scope.Thread)
+    public static class Accounts {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkAccounts.seedChecking(ACCOUNTS_PER_CURRENCY);
+        service = new TransactionManagerService();
+    }
+
+    @Benchmark
+    public MoneyModel checkFunds(Accounts accounts) {
+        return service.checkFunds(BenchmarkAccounts.checkingId(CurrencyType.RON, accounts.random.nextInt(ACCOUNTS_PER_CURRENCY)));
+    }
+
+    @Benchmark
+    public TransactionModel transfer(Accounts accounts) {
+        int from = accounts.random.nextInt(ACCOUNTS_PER_CURRENCY);
+        int to = (from + 1 + accounts.random.nextInt(ACCOUNTS_PER_CURRENCY - 1)) % ACCOUNTS_PER_CURRENCY;
+        return service.transfer(BenchmarkAccounts.checkingId(CurrencyType.RON, from),
+                BenchmarkAccounts.checkingId(CurrencyType.RON, to), AMOUNT);
+    }
+
+    @Fork(1)
+    public static class Enabled extends MetricsOverheadBenchmark {
+    }
+
+    @Fork(value = 1, jvmArgsAppend = "-Dbanking.metrics=false")
+    public static class Disabled extends MetricsOverheadBenchmark {
+    }
+}
@@ -0,0 +1,57 @@
+package jmh.java;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.RejectionReason;
+import main.java.services.TransactionManagerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Transfers rejected for insufficient funds, reported through the throwing and the result-returning API.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RejectionBenchmark {
+    private static final MoneyModel TOO_MUCH = new MoneyModel(2 * BenchmarkAccounts.OPENING_BALANCE, CurrencyType.RON);
+
+    private TransactionManagerService service;
+    private String from;
+    private String to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkAccounts.seedChecking(2);
+        service = new TransactionManagerService();
+        from = BenchmarkAccounts.checkingId(CurrencyType.RON, 0);
+        to = BenchmarkAccounts.checkingId(CurrencyType.RON, 1);
+    }
+
+    @Benchmark
+    public RejectionReason transferThrowing() {
+        try {
+            service.transfer(from, to, TOO_MUCH);
+            return null;
+        } catch (RuntimeException e) {
+            return RejectionReason.INSUFFICIENT_FUNDS;
+        }
+    }
+
+    @Benchmark
+    public RejectionReason tryTransfer() {
+        return service.tryTransfer(from, to, TOO_MUCH).getRejectionReason();
+    }
+}
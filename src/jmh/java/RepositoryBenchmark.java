@@ -0,0 +1,84 @@
+package jmh.java;
+
+import main.java.domain.AccountModel;
+import main.java.domain.CheckingAccountModel;
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.repository.AccountHandleIndex;
+import main.java.repository.InMemoryDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int accounts;
+
+    private InMemoryDatabase<AccountModel> database;
+    private AccountHandleIndex handleIndex;
+    private String[] ids;
+    private int[] handles;
+
+    @State(Scope.Thread)
+    public static class Lookup {
+        private final SplittableRandom random = new SplittableRandom();
+        int index;
+
+        @Setup(Level.Invocation)
+        public void pick(RepositoryBenchmark benchmark) {
+            index = random.nextInt(benchmark.accounts);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new InMemoryDatabase<>(accounts);
+        handleIndex = new AccountHandleIndex();
+        database.addListener(handleIndex);
+        ids = new String[accounts];
+        handles = new int[accounts];
+        for (int i = 0; i < accounts; i++) {
+            ids[i] = "ACCOUNT" + i;
+            AccountModel account = new CheckingAccountModel(ids[i], new MoneyModel(1000, CurrencyType.RON), new ArrayList<>(), null);
+            database.add(ids[i], account);
+            handles[i] = account.getHandle();
+        }
+    }
+
+    @Benchmark
+    public AccountModel get(Lookup lookup) {
+        return database.get(ids[lookup.index]);
+    }
+
+    @Benchmark
+    public AccountModel getByHandle(Lookup lookup) {
+        return handleIndex.get(handles[lookup.index]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<AccountModel> getAll() {
+        return database.getAll();
+    }
+}
@@ -0,0 +1,60 @@
+package jmh.java;
+
+import main.java.services.CapitalizationReport;
+import main.java.services.SavingsManagerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// One month-end capitalization run per invocation. parallelism is the size of the ForkJoin pool the run is
+// split over; useDueIndex compares visiting only the due accounts against scanning the whole repository.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class SavingsBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int accounts;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    @Param({"true", "false"})
+    public boolean useDueIndex;
+
+    private ForkJoinPool pool;
+    private SavingsManagerService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkAccounts.seedSavings(accounts);
+        pool = new ForkJoinPool(parallelism);
+        service = new SavingsManagerService(pool, 4096, useDueIndex);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public CapitalizationReport passTime() {
+        return service.passTime();
+    }
+}
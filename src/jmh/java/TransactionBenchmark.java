@@ -0,0 +1,85 @@
+package jmh.java;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionModel;
+import main.java.services.TransactionManagerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Transfers, withdrawals and balance lookups between randomly chosen accounts. The balances are large enough
+// that no operation is ever rejected for insufficient funds.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class TransactionBenchmark {
+    private static final int ACCOUNTS_PER_CURRENCY = 10_000;
+    private static final MoneyModel AMOUNT = new MoneyModel(0.01, CurrencyType.RON);
+
+    private TransactionManagerService service;
+
+    @State(Scope.Thread)
+    public static class Accounts {
+        private final SplittableRandom random = new SplittableRandom();
+        int from;
+        int to;
+
+        @Setup(Level.Invocation)
+        public void pick() {
+            from = random.nextInt(ACCOUNTS_PER_CURRENCY);
+            to = (from + 1 + random.nextInt(ACCOUNTS_PER_CURRENCY - 1)) % ACCOUNTS_PER_CURRENCY;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkAccounts.seedChecking(ACCOUNTS_PER_CURRENCY);
+        service = new TransactionManagerService();
+    }
+
+    @Benchmark
+    public TransactionModel transferSameCurrency(Accounts accounts) {
+        return service.transfer(BenchmarkAccounts.checkingId(CurrencyType.RON, accounts.from),
+                BenchmarkAccounts.checkingId(CurrencyType.RON, accounts.to), AMOUNT);
+    }
+
+    @Benchmark
+    public TransactionModel transferCrossCurrency(Accounts accounts) {
+        return service.transfer(BenchmarkAccounts.checkingId(CurrencyType.RON, accounts.from),
+                BenchmarkAccounts.checkingId(CurrencyType.EUR, accounts.to), AMOUNT);
+    }
+
+    @Benchmark
+    public TransactionModel withdraw(Accounts accounts) {
+        return service.withdraw(BenchmarkAccounts.checkingId(CurrencyType.RON, accounts.from), AMOUNT);
+    }
+
+    @Benchmark
+    public MoneyModel checkFunds(Accounts accounts) {
+        return service.checkFunds(BenchmarkAccounts.checkingId(CurrencyType.RON, accounts.from));
+    }
+
+    @Threads(1)
+    public static class SingleThreaded extends TransactionBenchmark {
+    }
+
+    @Threads(4)
+    public static class MultiThreaded extends TransactionBenchmark {
+    }
+}
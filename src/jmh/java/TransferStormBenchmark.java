@@ -0,0 +1,63 @@
+package jmh.java;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionModel;
+import main.java.repository.AccountsRepository;
+import main.java.services.TransactionManagerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Every client thread pays into the same settlement account. stripes = 0 keeps its plain balance, so every
+// credit takes the account's lock; otherwise the balance is striped and credits take only the payer's lock.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+@Threads(8)
+public class TransferStormBenchmark {
+    private static final int CUSTOMERS = 10_000;
+    private static final MoneyModel AMOUNT = new MoneyModel(0.01, CurrencyType.RON);
+    private static final String SETTLEMENT = BenchmarkAccounts.checkingId(CurrencyType.RON, 0);
+
+    @Param({"0", "16"})
+    public int stripes;
+
+    private TransactionManagerService service;
+
+    @State(Scope.Thread)
+    public static class Customers {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkAccounts.seedChecking(CUSTOMERS);
+        if (stripes > 0) {
+            AccountsRepository.INSTANCE.get(SETTLEMENT).stripeBalance(stripes);
+        }
+        service = new TransactionManagerService();
+    }
+
+    @Benchmark
+    public TransactionModel payIntoSettlement(Customers customers) {
+        String customer = BenchmarkAccounts.checkingId(CurrencyType.RON, 1 + customers.random.nextInt(CUSTOMERS - 1));
+        return service.transfer(customer, SETTLEMENT, AMOUNT);
+    }
+}
@@ -3,23 +3,32 @@ package main.java;
 import main.java.domain.CurrencyType;
 import main.java.domain.MoneyModel;
 import main.java.domain.TransactionModel;
+import main.java.metrics.ServiceMetrics;
+import main.java.repository.AccountSnapshotStore;
+import main.java.repository.AccountsRepository;
+import main.java.repository.TransactionJournal;
 import main.java.seed.SeedInitializer;
 import main.java.services.SavingsManagerService;
 import main.java.services.TransactionManagerService;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
 import static main.java.seed.AccountsSeedData.*;
 
 public class BankingApplication {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         System.out.println("[SYSTEM] Initialize Application \n");
         SeedInitializer.seedData();
+        TransactionJournal journal = openJournal();
         System.out.println("[SYSTEM] Running Application \n\n");
 
         // TRANSACTION MANAGER FUNCTIONALITY
 
-        TransactionManagerService transactionManagerServiceInstance = new TransactionManagerService();
-        SavingsManagerService savingsManagerServiceInstance = new SavingsManagerService();
+        TransactionManagerService transactionManagerServiceInstance = new TransactionManagerService(journal);
+        SavingsManagerService savingsManagerServiceInstance = new SavingsManagerService(ForkJoinPool.commonPool(), 4096, true, journal);
 
         System.out.println("[Transaction Manager] 1. " + transactionManagerServiceInstance.checkFunds(checkingAccountA.getId()));
         System.out.println("[Transaction Manager] 2. " + transactionManagerServiceInstance.checkFunds(checkingAccountB.getId()));
@@ -72,6 +81,24 @@ public class BankingApplication {
         savingsManagerServiceInstance.passTime();
         System.out.println("[Saving Manager] 8. " + transactionManagerServiceInstance.checkFunds(savingsAccountB.getId()));
 
+        if (journal != null) {
+            System.out.println("\n[SYSTEM] " + new AccountSnapshotStore(AccountsRepository.INSTANCE, journal).takeSnapshot());
+            journal.close();
+        }
+        System.out.println("\n[SYSTEM] Service metrics\n" + ServiceMetrics.dumpText());
         System.out.println("\n[SYSTEM] Application closed\n");
     }
+
+    // Journaling is opt-in: run with -Dbanking.journal=<directory> to make every balance change durable.
+    // Startup restores the latest snapshot in that directory and replays only the journal written after it.
+    private static TransactionJournal openJournal() throws IOException {
+        String journalDirectory = System.getProperty("banking.journal");
+        if (journalDirectory == null) {
+            return null;
+        }
+        Path path = Path.of(journalDirectory);
+        System.out.println("[SYSTEM] Loading snapshot from " + path + ": " + AccountSnapshotStore.loadLatest(path, AccountsRepository.INSTANCE));
+        System.out.println("[SYSTEM] Replaying journal " + path + ": " + TransactionJournal.replay(path, AccountsRepository.INSTANCE) + "\n");
+        return TransactionJournal.open(path);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package main.java.domain;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Maps external account ids to dense int handles and back. Transactions record handles instead of id strings,
+// and handle-keyed indexes can be plain arrays.
+//
+// The entries belong to the repository: its handle index acquires an account's id when the account is added
+// and releases it when the account is removed, and a released handle is given to the next new id. The one
+// exception is a handle named by a transfer, which sits in the other account's history: its id stays readable
+// for as long as the process runs. Withdrawals and interest postings only name their own account, so read
+// their ids before removing it. Ids passed to the TransactionModel string constructors (journal replay) are
+// registered without being acquired and are never released.
+//
+// Handles only mean something within this process: anything persisted across restarts (the journal,
+// snapshots) keeps the string ids.
+public class AccountIdDictionary {
+    public static final AccountIdDictionary INSTANCE = new AccountIdDictionary();
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    // A handle's state is the number of repositories holding its id, plus this flag once a transfer names it.
+    private static final int NAMED = 1 << 30;
+
+    private final ConcurrentMap<String, Integer> handles = new ConcurrentHashMap<>();
+    // Replaced by a larger copy when full. An id is stored before its handle is published in the map, so
+    // whoever holds a handle finds its id in whichever copy it reads.
+    private volatile String[] ids = new String[1024];
+    // Pages are only ever added, never copied, so a flag set while another thread grows the dictionary is kept.
+    private volatile AtomicIntegerArray[] states = new AtomicIntegerArray[16];
+    private int[] freeHandles = new int[16];
+    private int freeCount;
+    private int assigned;
+
+    // The handle of the id, registering it if it has none yet; -1 for a null id.
+    public int handleOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        Integer handle = handles.get(id);
+        return handle != null ? handle : register(id);
+    }
+
+    // The handle of the id, or -1 if it has none.
+    public int find(String id) {
+        if (id == null) {
+            return -1;
+        }
+        Integer handle = handles.get(id);
+        return handle != null ? handle : -1;
+    }
+
+    // The id of the handle, or null if the handle is -1 or has been released.
+    public String idOf(int handle) {
+        String[] current = ids;
+        return handle < 0 || handle >= current.length ? null : current[handle];
+    }
+
+    // The number of ids that currently have a handle.
+    public int size() {
+        return handles.size();
+    }
+
+    // Called by the repository when it takes an account in; every acquire is paired with a release.
+    public synchronized int acquire(String id) {
+        int handle = handleOf(id);
+        state(handle).incrementAndGet(handle & (PAGE_SIZE - 1));
+        return handle;
+    }
+
+    // Called by the repository when it lets an account go. The handle is free for another id once no
+    // repository holds it, unless a transfer has named it.
+    public synchronized void release(int handle) {
+        if (handle < 0 || state(handle).decrementAndGet(handle & (PAGE_SIZE - 1)) != 0) {
+            return;
+        }
+        String[] current = ids;
+        handles.remove(current[handle]);
+        current[handle] = null;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        }
+        freeHandles[freeCount++] = handle;
+    }
+
+    // Marks the accounts of a transfer, whose ids have to stay readable from each other's history.
+    void name(int from, int to) {
+        if (from != to) {
+            name(from);
+            name(to);
+        }
+    }
+
+    private void name(int handle) {
+        if (handle < 0) {
+            return;
+        }
+        AtomicIntegerArray page = state(handle);
+        int index = handle & (PAGE_SIZE - 1);
+        if ((page.get(index) & NAMED) == 0) {
+            page.getAndAccumulate(index, NAMED, (state, flag) -> state | flag);
+        }
+    }
+
+    private AtomicIntegerArray state(int handle) {
+        return states[handle >>> PAGE_BITS];
+    }
+
+    private synchronized int register(String id) {
+        Integer existing = handles.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        int handle = freeCount > 0 ? freeHandles[--freeCount] : assigned++;
+        String[] current = ids;
+        if (handle == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        int page = handle >>> PAGE_BITS;
+        if (page == states.length || states[page] == null) {
+            AtomicIntegerArray[] grown = page < states.length ? states : Arrays.copyOf(states, states.length * 2);
+            grown[page] = new AtomicIntegerArray(PAGE_SIZE);
+            states = grown;
+        }
+        current[handle] = id;
+        ids = current;
+        handles.put(id, handle);
+        return handle;
+    }
+}
@@ -1,19 +1,21 @@
 package main.java.domain;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public abstract class AccountModel {
     private String id;
+    private volatile int handle = -1; // AccountIdDictionary handle of the id while the account is in the repository
     private AccountType accountType;
     private MoneyModel balance;
-    private List<TransactionModel> transactions;
+    private TransactionHistory history;
+    private long journalSequence; // sequence number of the last journal entry reflected in the balance
 
     public AccountModel(String id, AccountType accountType, MoneyModel balance, List<TransactionModel> transactions) {
         this.id = id;
         this.accountType = accountType;
         this.balance = balance;
-        this.transactions = new ArrayList<>(transactions);
+        // Without a transaction list the history is left to a subclass that keeps it elsewhere.
+        this.history = transactions == null ? null : new TransactionHistory(transactions);
 
     }
 
@@ -25,6 +27,15 @@ public abstract class AccountModel {
         this.id = id;
     }
 
+    public int getHandle() {
+        return handle;
+    }
+
+    // Assigned by the repository when the account is added.
+    public void setHandle(int handle) {
+        this.handle = handle;
+    }
+
     public AccountType getAccountType() {
         return accountType;
     }
@@ -41,21 +52,52 @@ public abstract class AccountModel {
         this.balance = balance;
     }
 
+    // Opts a hot receiving account into striped credits (see StripedMoneyModel); its history takes the credits
+    // without its lock as well. Call it before the account takes any traffic.
+    public void stripeBalance(int stripes) {
+        setBalance(new StripedMoneyModel(getBalance(), stripes));
+        if (!hasStripedBalance()) {
+            throw new UnsupportedOperationException("The balance of this account cannot be striped.");
+        }
+        getHistory().stripeAppends(stripes);
+    }
+
+    public boolean hasStripedBalance() {
+        return getBalance() instanceof StripedMoneyModel;
+    }
+
+    // Copy of the whole history, including the part spilled to the archive; use getHistory().page(...) for paging.
     public List<TransactionModel> getTransactions() {
-        return transactions;
+        return getHistory().toList();
     }
 
     public void setTransactions(List<TransactionModel> transactions) {
-        this.transactions = transactions;
+        setHistory(new TransactionHistory(transactions));
+    }
+
+    public TransactionHistory getHistory() {
+        return history;
+    }
+
+    public void setHistory(TransactionHistory history) {
+        this.history = history;
+    }
+
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public void setJournalSequence(long journalSequence) {
+        this.journalSequence = journalSequence;
     }
 
     @Override
     public String toString() {
         return "AccountModel{" +
-                "id='" + id + '\'' +
-                ", accountType=" + accountType +
-                ", balance=" + balance +
-                ", transactions=" + transactions.toString() +
+                "id='" + getId() + '\'' +
+                ", accountType=" + getAccountType() +
+                ", balance=" + getBalance() +
+                ", history=" + getHistory() +
                 '}';
     }
 }
@@ -12,6 +12,7 @@ public class CardModel {
     private boolean active;  // A boolean indicating whether the card is currently active or has been deactivated
     private double dailyWithdrawalLimit; // The maximum amount of money that can be withdrawn from the card in a day
     private double dailyTransactionLimit; // The maximum amount of money that can be spent using the card in a day.
+    private final CardUsage usage = new CardUsage(); // amounts counted against the daily limits
 
     public CardModel(
             Long cardNumber,
@@ -108,6 +109,10 @@ public class CardModel {
         this.dailyTransactionLimit = dailyTransactionLimit;
     }
 
+    public CardUsage getUsage() {
+        return usage;
+    }
+
     @Override
     public String toString() {
         return "CardModel{" +
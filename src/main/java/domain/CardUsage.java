@@ -0,0 +1,87 @@
+package main.java.domain;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// How much a card has withdrawn and spent on its current day, in minor units of the account currency.
+//
+// Each counter is a single long holding the epoch day in its top 24 bits and the amount used on that day in
+// the low 40 bits. A reservation for a later day simply replaces the old value, so the counters roll over at
+// the day boundary without any reset sweep, and every update is one CAS with no lock. The day never moves
+// backwards: a reservation for an earlier day (a request that read the clock just before midnight and got here
+// after the counter rolled over) is rejected, since replacing the counter would wipe the newer day's usage.
+public class CardUsage {
+    private static final int AMOUNT_BITS = 40;
+    private static final long AMOUNT_MASK = (1L << AMOUNT_BITS) - 1;
+
+    private final AtomicLong withdrawn = new AtomicLong();
+    private final AtomicLong spent = new AtomicLong();
+
+    public boolean tryWithdraw(long epochDay, long minorUnits, long limit) {
+        return tryReserve(withdrawn, epochDay, minorUnits, limit);
+    }
+
+    public void releaseWithdrawal(long epochDay, long minorUnits) {
+        release(withdrawn, epochDay, minorUnits);
+    }
+
+    public long getWithdrawnOn(long epochDay) {
+        return usedOn(withdrawn.get(), epochDay);
+    }
+
+    public boolean trySpend(long epochDay, long minorUnits, long limit) {
+        return tryReserve(spent, epochDay, minorUnits, limit);
+    }
+
+    public void releaseSpend(long epochDay, long minorUnits) {
+        release(spent, epochDay, minorUnits);
+    }
+
+    public long getSpentOn(long epochDay) {
+        return usedOn(spent.get(), epochDay);
+    }
+
+    private static boolean tryReserve(AtomicLong counter, long epochDay, long minorUnits, long limit) {
+        long cappedLimit = Math.min(limit, AMOUNT_MASK);
+        if (minorUnits > cappedLimit) {
+            return false;
+        }
+        while (true) {
+            long state = counter.get();
+            if (state >>> AMOUNT_BITS > epochDay) {
+                return false;
+            }
+            long used = usedOn(state, epochDay);
+            if (used > cappedLimit - minorUnits) {
+                return false;
+            }
+            if (counter.compareAndSet(state, epochDay << AMOUNT_BITS | (used + minorUnits))) {
+                return true;
+            }
+        }
+    }
+
+    // Gives back a reservation whose operation failed; nothing to do once the day has rolled over.
+    private static void release(AtomicLong counter, long epochDay, long minorUnits) {
+        while (true) {
+            long state = counter.get();
+            if (state >>> AMOUNT_BITS != epochDay) {
+                return;
+            }
+            if (counter.compareAndSet(state, state - Math.min(minorUnits, state & AMOUNT_MASK))) {
+                return;
+            }
+        }
+    }
+
+    private static long usedOn(long state, long epochDay) {
+        return state >>> AMOUNT_BITS == epochDay ? state & AMOUNT_MASK : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "CardUsage{" +
+                "withdrawn=" + (withdrawn.get() & AMOUNT_MASK) +
+                ", spent=" + (spent.get() & AMOUNT_MASK) +
+                '}';
+    }
+}
@@ -24,8 +24,8 @@ public class CheckingAccountModel extends AccountModel {
                 "id='" + getId() + '\'' +
                 ", accountType=" + getAccountType() +
                 ", balance=" + getBalance() +
-                ", transactions=" + getTransactions().toString() +
-                ", associatedCard=" + associatedCard +
+                ", history=" + getHistory() +
+                ", associatedCard=" + getAssociatedCard() +
                 '}';
     }
 }
@@ -1,6 +1,26 @@
 package main.java.domain;
 
 public enum CurrencyType {
-    RON,
-    EUR
+    // New currencies go at the end: the ordinal is what the journal, snapshots and account store persist.
+    RON(2),
+    EUR(2),
+    USD(2),
+    GBP(2),
+    CHF(2);
+
+    private final int minorUnitDigits; // number of decimal places in which amounts of this currency are kept
+    private final long minorUnitsPerMajor;
+
+    CurrencyType(int minorUnitDigits) {
+        this.minorUnitDigits = minorUnitDigits;
+        this.minorUnitsPerMajor = (long) Math.pow(10, minorUnitDigits);
+    }
+
+    public int getMinorUnitDigits() {
+        return minorUnitDigits;
+    }
+
+    public long getMinorUnitsPerMajor() {
+        return minorUnitsPerMajor;
+    }
 }
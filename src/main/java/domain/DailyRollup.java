@@ -0,0 +1,52 @@
+package main.java.domain;
+
+import java.time.LocalDate;
+
+// Totals of one account for one day: what left and entered it through transfers and withdrawals, how many of
+// them there were and the balance after the last one.
+public class DailyRollup {
+    private final LocalDate date;
+    private final MoneyModel debits;
+    private final MoneyModel credits;
+    private final int transactionCount;
+    private final MoneyModel closingBalance;
+
+    public DailyRollup(LocalDate date, MoneyModel debits, MoneyModel credits, int transactionCount, MoneyModel closingBalance) {
+        this.date = date;
+        this.debits = debits;
+        this.credits = credits;
+        this.transactionCount = transactionCount;
+        this.closingBalance = closingBalance;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public MoneyModel getDebits() {
+        return debits;
+    }
+
+    public MoneyModel getCredits() {
+        return credits;
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public MoneyModel getClosingBalance() {
+        return closingBalance;
+    }
+
+    @Override
+    public String toString() {
+        return "DailyRollup{" +
+                "date=" + date +
+                ", debits=" + debits +
+                ", credits=" + credits +
+                ", transactionCount=" + transactionCount +
+                ", closingBalance=" + closingBalance +
+                '}';
+    }
+}
@@ -0,0 +1,249 @@
+package main.java.domain;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Per-day totals of one account (debits, credits, transaction count and closing balance), kept up to date as
+// transfers and withdrawals commit, so turnover and balance-as-of queries read one entry per day instead of
+// every transaction. Amounts are minor units of the account's currency; a transfer's debit is what left the
+// source, its credit what reached the target.
+//
+// The closing balance is read from the account when a transaction is recorded, inside this object's lock, so
+// whichever record comes last on a day sees every change that was recorded before it. Balance changes that are
+// not transactions (capitalized interest) therefore only show up in the closing balance of the next day with a
+// transaction.
+//
+// Days are expected in order, as LocalDate.now() hands them out; a late record for an earlier day (a
+// transaction straddling midnight) is folded into the last recorded day.
+//
+// An account restored with a balance whose transactions were never seen (from a snapshot, or from a mapped store
+// of an earlier run) only has rollups from the day after the restored state, see startAfter. Records for earlier
+// days are dropped, and queries that reach further back fail instead of answering from partial data.
+//
+// The rollups of a striped account (see stripeRecords) also take records without their lock: they are buffered
+// and merged before any other method runs, and the closing balance is read when they are merged.
+public class DailyRollups {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final CurrencyType currency;
+    // The most recent day is kept in plain fields, so recording a transaction touches this object only; it moves
+    // to the arrays once a later day starts.
+    private boolean hasOpenDay;
+    private int openDay;
+    private long openDebits;
+    private long openCredits;
+    private int openCount;
+    private long openClosingBalance;
+    // Earlier days, oldest first; allocated when the first day is closed.
+    private int[] days;
+    private long[] debits;
+    private long[] credits;
+    private int[] counts;
+    private long[] closingBalances;
+    private int closedDays;
+    private volatile StripedBuffer<BufferedRecord> concurrentRecords; // null unless records are striped
+    private int firstCoveredDay = Integer.MIN_VALUE;
+
+    private record BufferedRecord(LocalDate date, long debitMinorUnits, long creditMinorUnits, MoneyModel balance) {
+    }
+
+    public DailyRollups(CurrencyType currency) {
+        this.currency = currency;
+    }
+
+    // Records one committed transaction; balance is the account's balance, read once the transaction has been
+    // applied to it.
+    public synchronized void record(LocalDate date, long debitMinorUnits, long creditMinorUnits, MoneyModel balance) {
+        mergeBuffered();
+        recordLocked(date, debitMinorUnits, creditMinorUnits, balance);
+    }
+
+    // Marks every day up to and including the given one as not fully recorded, so the rollups start the day after.
+    public synchronized void startAfter(LocalDate day) {
+        firstCoveredDay = Math.max(firstCoveredDay, Math.toIntExact(day.toEpochDay()) + 1);
+    }
+
+    // The first day whose transactions are all recorded, or null when every transaction of the account is.
+    public synchronized LocalDate getFirstCoveredDay() {
+        return firstCoveredDay == Integer.MIN_VALUE ? null : LocalDate.ofEpochDay(firstCoveredDay);
+    }
+
+    // Lets recordConcurrently skip this object's lock; called for accounts whose balance is striped.
+    public void stripeRecords(int stripes) {
+        concurrentRecords = new StripedBuffer<>(stripes);
+    }
+
+    // Same as record, but for striped rollups the record is only buffered, so concurrent credits to a hot
+    // account do not queue up on this object's lock.
+    public void recordConcurrently(LocalDate date, long debitMinorUnits, long creditMinorUnits, MoneyModel balance) {
+        StripedBuffer<BufferedRecord> buffer = concurrentRecords;
+        if (buffer == null) {
+            record(date, debitMinorUnits, creditMinorUnits, balance);
+        } else if (buffer.add(new BufferedRecord(date, debitMinorUnits, creditMinorUnits, balance))) {
+            synchronized (this) {
+                mergeBuffered();
+            }
+        }
+    }
+
+    private void mergeBuffered() {
+        StripedBuffer<BufferedRecord> buffer = concurrentRecords;
+        if (buffer != null) {
+            buffer.drainTo(buffered -> recordLocked(buffered.date(), buffered.debitMinorUnits(), buffered.creditMinorUnits(), buffered.balance()));
+        }
+    }
+
+    private void recordLocked(LocalDate date, long debitMinorUnits, long creditMinorUnits, MoneyModel balance) {
+        int day = Math.toIntExact(date.toEpochDay());
+        if (day < firstCoveredDay) {
+            return;
+        }
+        if (!hasOpenDay || day > openDay) {
+            if (hasOpenDay) {
+                closeOpenDay();
+            }
+            hasOpenDay = true;
+            openDay = day;
+        }
+        openDebits += debitMinorUnits;
+        openCredits += creditMinorUnits;
+        openCount++;
+        openClosingBalance = balance.getMinorUnits();
+    }
+
+    // The days with transactions within [from, to], oldest first; either bound may be null, and a null from starts
+    // at the first covered day.
+    public synchronized List<DailyRollup> between(LocalDate from, LocalDate to) {
+        mergeBuffered();
+        checkCovered(from);
+        List<DailyRollup> rollups = new ArrayList<>();
+        for (int i = firstAtOrAfter(from); i < dayCount() && !isAfter(dayAt(i), to); i++) {
+            rollups.add(new DailyRollup(LocalDate.ofEpochDay(dayAt(i)), money(debitsAt(i)), money(creditsAt(i)), countAt(i),
+                    money(closingBalanceAt(i))));
+        }
+        return rollups;
+    }
+
+    // A null from starts at the first covered day, which the returned turnover then reports as its start.
+    public synchronized Turnover turnover(LocalDate from, LocalDate to) {
+        mergeBuffered();
+        checkCovered(from);
+        if (from == null && firstCoveredDay != Integer.MIN_VALUE) {
+            from = LocalDate.ofEpochDay(firstCoveredDay);
+        }
+        long debitSum = 0;
+        long creditSum = 0;
+        long count = 0;
+        for (int i = firstAtOrAfter(from); i < dayCount() && !isAfter(dayAt(i), to); i++) {
+            debitSum += debitsAt(i);
+            creditSum += creditsAt(i);
+            count += countAt(i);
+        }
+        return new Turnover(from, to, money(debitSum), money(creditSum), count);
+    }
+
+    // The closing balance of the last day with transactions on or before date. Before the first recorded day it
+    // is the balance the account had before that day's transactions; with nothing recorded it is null. The end of
+    // the day before the first covered day is the earliest date it can answer for.
+    public synchronized MoneyModel balanceAsOf(LocalDate date) {
+        mergeBuffered();
+        checkCovered(date.plusDays(1));
+        if (dayCount() == 0) {
+            return null;
+        }
+        int last = firstAtOrAfter(date.plusDays(1)) - 1;
+        if (last < 0) {
+            return money(closingBalanceAt(0) - creditsAt(0) + debitsAt(0));
+        }
+        return money(closingBalanceAt(last));
+    }
+
+    // Number of days with transactions.
+    public synchronized int size() {
+        mergeBuffered();
+        return dayCount();
+    }
+
+    private void checkCovered(LocalDate from) {
+        if (from != null && from.toEpochDay() < firstCoveredDay) {
+            throw new IllegalArgumentException("No daily rollups before " + LocalDate.ofEpochDay(firstCoveredDay)
+                    + ": the account was restored without its earlier transactions.");
+        }
+    }
+
+    private int dayCount() {
+        return hasOpenDay ? closedDays + 1 : closedDays;
+    }
+
+    // Index of the first recorded day on or after date, or 0 when date is null.
+    private int firstAtOrAfter(LocalDate date) {
+        if (date == null) {
+            return 0;
+        }
+        int day = Math.toIntExact(date.toEpochDay());
+        int index = closedDays == 0 ? -1 : Arrays.binarySearch(days, 0, closedDays, day);
+        if (index >= 0) {
+            return index;
+        }
+        index = -index - 1;
+        // Past every closed day: the open day, if it is not before date, or the end.
+        return index == closedDays && hasOpenDay && openDay < day ? dayCount() : index;
+    }
+
+    // Accessors over the closed days followed by the open one.
+    private int dayAt(int i) {
+        return i == closedDays ? openDay : days[i];
+    }
+
+    private long debitsAt(int i) {
+        return i == closedDays ? openDebits : debits[i];
+    }
+
+    private long creditsAt(int i) {
+        return i == closedDays ? openCredits : credits[i];
+    }
+
+    private int countAt(int i) {
+        return i == closedDays ? openCount : counts[i];
+    }
+
+    private long closingBalanceAt(int i) {
+        return i == closedDays ? openClosingBalance : closingBalances[i];
+    }
+
+    private static boolean isAfter(int day, LocalDate to) {
+        return to != null && day > to.toEpochDay();
+    }
+
+    private MoneyModel money(long minorUnits) {
+        return MoneyModel.ofMinorUnits(minorUnits, currency);
+    }
+
+    private void closeOpenDay() {
+        if (days == null) {
+            days = new int[INITIAL_CAPACITY];
+            debits = new long[INITIAL_CAPACITY];
+            credits = new long[INITIAL_CAPACITY];
+            counts = new int[INITIAL_CAPACITY];
+            closingBalances = new long[INITIAL_CAPACITY];
+        } else if (closedDays == days.length) {
+            int capacity = days.length * 2;
+            days = Arrays.copyOf(days, capacity);
+            debits = Arrays.copyOf(debits, capacity);
+            credits = Arrays.copyOf(credits, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            closingBalances = Arrays.copyOf(closingBalances, capacity);
+        }
+        days[closedDays] = openDay;
+        debits[closedDays] = openDebits;
+        credits[closedDays] = openCredits;
+        counts[closedDays] = openCount;
+        closingBalances[closedDays] = openClosingBalance;
+        closedDays++;
+        openDebits = 0;
+        openCredits = 0;
+        openCount = 0;
+    }
+}
@@ -0,0 +1,46 @@
+package main.java.domain;
+
+public class ExchangeRateQuote {
+    private CurrencyType fromCurrency;
+    private CurrencyType toCurrency;
+    private double rate; // units of toCurrency received for one unit of fromCurrency
+
+    public ExchangeRateQuote(CurrencyType fromCurrency, CurrencyType toCurrency, double rate) {
+        this.fromCurrency = fromCurrency;
+        this.toCurrency = toCurrency;
+        this.rate = rate;
+    }
+
+    public CurrencyType getFromCurrency() {
+        return fromCurrency;
+    }
+
+    public void setFromCurrency(CurrencyType fromCurrency) {
+        this.fromCurrency = fromCurrency;
+    }
+
+    public CurrencyType getToCurrency() {
+        return toCurrency;
+    }
+
+    public void setToCurrency(CurrencyType toCurrency) {
+        this.toCurrency = toCurrency;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public String toString() {
+        return "ExchangeRateQuote{" +
+                "fromCurrency=" + fromCurrency +
+                ", toCurrency=" + toCurrency +
+                ", rate=" + rate +
+                '}';
+    }
+}
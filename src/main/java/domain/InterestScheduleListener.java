@@ -0,0 +1,7 @@
+package main.java.domain;
+
+import java.time.LocalDate;
+
+public interface InterestScheduleListener {
+    void onScheduleChanged(SavingsAccountModel account, CapitalizationFrequency previousFrequency, LocalDate previousLastInterestAppliedDate);
+}
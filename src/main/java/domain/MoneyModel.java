@@ -1,21 +1,44 @@
 package main.java.domain;
 
+// Amounts are kept as a whole number of minor units (e.g. bani or cents) of the currency, so repeated
+// arithmetic never drifts. Rounding to minor units is always half-even.
 public class MoneyModel {
-    private double amount;
+    private long minorUnits;
     private CurrencyType currency;
 
     public MoneyModel(double amount, CurrencyType currency) {
-        this.amount = amount;
+        this.minorUnits = toMinorUnits(amount, currency);
         this.currency = currency;
 
     }
 
+    private MoneyModel(CurrencyType currency, long minorUnits) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static MoneyModel ofMinorUnits(long minorUnits, CurrencyType currency) {
+        return new MoneyModel(currency, minorUnits);
+    }
+
+    public static long toMinorUnits(double amount, CurrencyType currency) {
+        return (long) Math.rint(amount * currency.getMinorUnitsPerMajor());
+    }
+
     public double getAmount() {
-        return amount;
+        return (double) getMinorUnits() / getCurrency().getMinorUnitsPerMajor();
     }
 
     public void setAmount(double amount) {
-        this.amount = amount;
+        setMinorUnits(toMinorUnits(amount, getCurrency()));
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public void setMinorUnits(long minorUnits) {
+        this.minorUnits = minorUnits;
     }
 
     public CurrencyType getCurrency() {
@@ -26,11 +49,29 @@ public class MoneyModel {
         this.currency = currency;
     }
 
+    // The arithmetic below only goes through the accessors, so subclasses that keep the amount elsewhere
+    // (e.g. in a memory-mapped record) only need to override getMinorUnits/setMinorUnits/getCurrency.
+    public void add(long minorUnits) {
+        setMinorUnits(getMinorUnits() + minorUnits);
+    }
+
+    public void subtract(long minorUnits) {
+        setMinorUnits(getMinorUnits() - minorUnits);
+    }
+
+    // Adds amount * rate to the balance and returns the added minor units.
+    public long applyRate(double rate) {
+        long current = getMinorUnits();
+        long delta = (long) Math.rint(current * rate);
+        setMinorUnits(current + delta);
+        return delta;
+    }
+
     @Override
     public String toString() {
         return "MoneyModel{" +
-                "amount=" + amount +
-                ", currency=" + currency +
+                "amount=" + getAmount() +
+                ", currency=" + getCurrency() +
                 '}';
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+package main.java.domain;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Immutable matrix of exchange rates between every pair of currencies, indexed by currency ordinal.
+//
+// Besides the quoted rates it keeps each rate pre-multiplied by the minor unit scales of the two currencies,
+// so converting an amount in minor units is one array read and one multiplication. Pairs without a quote
+// hold NaN and are rejected on use. A new table with a higher version replaces the old one whenever the
+// rates change; a table is never modified after construction.
+public class RateTable {
+    private static final int CURRENCIES = CurrencyType.values().length;
+
+    private final long version;
+    private final double[] rates = new double[CURRENCIES * CURRENCIES];
+    private final double[] scaledRates = new double[CURRENCIES * CURRENCIES];
+
+    // A pair without a direct quote uses the inverse of the opposite quote when there is one.
+    public RateTable(long version, List<ExchangeRateQuote> quotes) {
+        this.version = version;
+        Arrays.fill(rates, Double.NaN);
+        for (CurrencyType currency : CurrencyType.values()) {
+            rates[index(currency, currency)] = 1.0;
+        }
+        for (ExchangeRateQuote quote : quotes) {
+            if (!(quote.getRate() > 0) || Double.isInfinite(quote.getRate())) {
+                throw new IllegalArgumentException("Exchange rates must be positive: " + quote);
+            }
+            if (quote.getFromCurrency() != quote.getToCurrency()) {
+                rates[index(quote.getFromCurrency(), quote.getToCurrency())] = quote.getRate();
+            }
+        }
+        for (CurrencyType from : CurrencyType.values()) {
+            for (CurrencyType to : CurrencyType.values()) {
+                if (Double.isNaN(rates[index(from, to)]) && !Double.isNaN(rates[index(to, from)])) {
+                    rates[index(from, to)] = 1.0 / rates[index(to, from)];
+                }
+                scaledRates[index(from, to)] = rates[index(from, to)] * to.getMinorUnitsPerMajor() / from.getMinorUnitsPerMajor();
+            }
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public double getRate(CurrencyType fromCurrency, CurrencyType toCurrency) {
+        double rate = rates[index(fromCurrency, toCurrency)];
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("Unsupported currency conversion");
+        }
+        return rate;
+    }
+
+    public boolean supports(CurrencyType fromCurrency, CurrencyType toCurrency) {
+        return !Double.isNaN(rates[index(fromCurrency, toCurrency)]);
+    }
+
+    // Rounds half to even, like every other minor unit calculation.
+    public long convertMinorUnits(long minorUnits, CurrencyType fromCurrency, CurrencyType toCurrency) {
+        if (fromCurrency == toCurrency) {
+            return minorUnits;
+        }
+        double scaledRate = scaledRates[index(fromCurrency, toCurrency)];
+        if (Double.isNaN(scaledRate)) {
+            throw new IllegalArgumentException("Unsupported currency conversion");
+        }
+        return (long) Math.rint(minorUnits * scaledRate);
+    }
+
+    private static int index(CurrencyType fromCurrency, CurrencyType toCurrency) {
+        return fromCurrency.ordinal() * CURRENCIES + toCurrency.ordinal();
+    }
+
+    @Override
+    public String toString() {
+        return "RateTable{" +
+                "version=" + version +
+                ", rates=" + Arrays.toString(rates) +
+                '}';
+    }
+}
@@ -0,0 +1,11 @@
+package main.java.domain;
+
+public enum RejectionReason {
+    UNKNOWN_ACCOUNT,
+    SAVINGS_RESTRICTION,
+    NEGATIVE_AMOUNT,
+    SAME_ACCOUNT,
+    CURRENCY_MISMATCH,
+    UNSUPPORTED_CURRENCY,
+    INSUFFICIENT_FUNDS
+}
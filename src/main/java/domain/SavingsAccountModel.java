@@ -7,6 +7,7 @@ public class SavingsAccountModel extends AccountModel {
     private double interest; // always adds to balance based on frequency
     private CapitalizationFrequency interestFrequency; // how often interest is added to the account balance
     private LocalDate lastInterestAppliedDate; // the last date the interest was applied to the account
+    private volatile InterestScheduleListener scheduleListener; // notified when the frequency or the last interest date changes
 
     public SavingsAccountModel(
             String id,
@@ -35,7 +36,9 @@ public class SavingsAccountModel extends AccountModel {
     }
 
     public void setInterestFrequency(CapitalizationFrequency interestFrequency) {
+        CapitalizationFrequency previousFrequency = this.interestFrequency;
         this.interestFrequency = interestFrequency;
+        notifyScheduleChanged(previousFrequency, lastInterestAppliedDate);
     }
 
     public LocalDate getLastInterestAppliedDate() {
@@ -43,7 +46,24 @@ public class SavingsAccountModel extends AccountModel {
     }
 
     public void setLastInterestAppliedDate(LocalDate lastInterestAppliedDate) {
+        LocalDate previousLastInterestAppliedDate = this.lastInterestAppliedDate;
         this.lastInterestAppliedDate = lastInterestAppliedDate;
+        notifyScheduleChanged(interestFrequency, previousLastInterestAppliedDate);
+    }
+
+    public InterestScheduleListener getScheduleListener() {
+        return scheduleListener;
+    }
+
+    public void setScheduleListener(InterestScheduleListener scheduleListener) {
+        this.scheduleListener = scheduleListener;
+    }
+
+    protected void notifyScheduleChanged(CapitalizationFrequency previousFrequency, LocalDate previousLastInterestAppliedDate) {
+        InterestScheduleListener listener = getScheduleListener();
+        if (listener != null) {
+            listener.onScheduleChanged(this, previousFrequency, previousLastInterestAppliedDate);
+        }
     }
 
     @Override
@@ -52,10 +72,10 @@ public class SavingsAccountModel extends AccountModel {
                 "id='" + getId() + '\'' +
                 ", accountType=" + getAccountType() +
                 ", balance=" + getBalance() +
-                ", transactions=" + getTransactions().toString() +
-                ", interest=" + interest +
-                ", interestFrequency=" + interestFrequency +
-                ", lastInterestAppliedDate=" + lastInterestAppliedDate +
+                ", history=" + getHistory() +
+                ", interest=" + getInterest() +
+                ", interestFrequency=" + getInterestFrequency() +
+                ", lastInterestAppliedDate=" + getLastInterestAppliedDate() +
                 '}';
     }
 }
@@ -0,0 +1,52 @@
+package main.java.domain;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+// Entries added concurrently to a structure of a hot account (its history or its rollups) without taking the
+// structure's lock. Threads are spread over lock-free queues by thread id, as StripedMoneyModel spreads
+// credits, and the owner drains every queue under its own lock before it reads or changes its state.
+//
+// add reports every MERGE_INTERVAL entries of a stripe, so an owner that is rarely read still merges its
+// entries regularly instead of letting the queues grow without bound.
+public class StripedBuffer<T> {
+    private static final int MERGE_INTERVAL = 256;
+    // One counter per cache line.
+    private static final int SPACING = 8;
+
+    private final ConcurrentLinkedQueue<T>[] queues;
+    private final AtomicLongArray counts;
+    private final int mask;
+
+    // stripeCount must be a power of two.
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Java has no generic array creation
+    public StripedBuffer(int stripeCount) {
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("The stripe count must be a power of two");
+        }
+        queues = (ConcurrentLinkedQueue<T>[]) new ConcurrentLinkedQueue[stripeCount];
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            queues[stripe] = new ConcurrentLinkedQueue<>();
+        }
+        counts = new AtomicLongArray(stripeCount * SPACING);
+        mask = stripeCount - 1;
+    }
+
+    // Returns true when the caller should merge the buffer into its owner.
+    public boolean add(T entry) {
+        int stripe = (int) Thread.currentThread().threadId() & mask;
+        queues[stripe].add(entry);
+        return counts.incrementAndGet(stripe * SPACING) % MERGE_INTERVAL == 0;
+    }
+
+    // Hands every buffered entry to the owner, stripe by stripe and in the order each stripe received them.
+    // Only called under the owner's lock.
+    public void drainTo(Consumer<T> owner) {
+        for (ConcurrentLinkedQueue<T> queue : queues) {
+            for (T entry = queue.poll(); entry != null; entry = queue.poll()) {
+                owner.accept(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package main.java.domain;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Balance of a very hot receiving account, split into sub-balances so that concurrent credits from different
+// threads land on different cache lines instead of all updating one field. The balance is the sum of the
+// stripes.
+//
+// Credits (add with a non-negative amount) may run concurrently with each other and with one debit.
+// Debits (subtract) must be serialized by the caller, as the account lock does. Because credits only ever
+// increase the stripes, a sum read during a debit is never more than what is really there, so a funds check
+// against it cannot let the balance go negative. A debit then drains the stripes one by one and never takes
+// a stripe below zero. setMinorUnits replaces all stripes and must not race with credits.
+public class StripedMoneyModel extends MoneyModel {
+    // One stripe per cache line.
+    private static final int SPACING = 8;
+
+    private final AtomicLongArray stripes;
+    private final int mask;
+
+    // stripeCount must be a power of two.
+    public StripedMoneyModel(MoneyModel balance, int stripeCount) {
+        super(0, balance.getCurrency());
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("The stripe count must be a power of two");
+        }
+        stripes = new AtomicLongArray(stripeCount * SPACING);
+        mask = stripeCount - 1;
+        stripes.set(0, balance.getMinorUnits());
+    }
+
+    public int getStripeCount() {
+        return mask + 1;
+    }
+
+    @Override
+    public long getMinorUnits() {
+        long sum = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            sum += stripes.get(stripe * SPACING);
+        }
+        return sum;
+    }
+
+    @Override
+    public void setMinorUnits(long minorUnits) {
+        stripes.set(0, minorUnits);
+        for (int stripe = 1; stripe <= mask; stripe++) {
+            stripes.set(stripe * SPACING, 0);
+        }
+    }
+
+    @Override
+    public void add(long minorUnits) {
+        if (minorUnits < 0) {
+            subtract(-minorUnits);
+            return;
+        }
+        int stripe = (int) Thread.currentThread().threadId() & mask;
+        stripes.getAndAdd(stripe * SPACING, minorUnits);
+    }
+
+    @Override
+    public void subtract(long minorUnits) {
+        long remaining = minorUnits;
+        for (int stripe = 0; stripe <= mask && remaining > 0; stripe++) {
+            int index = stripe * SPACING;
+            long available = stripes.get(index);
+            while (available > 0) {
+                long taken = Math.min(available, remaining);
+                if (stripes.compareAndSet(index, available, available - taken)) {
+                    remaining -= taken;
+                    break;
+                }
+                available = stripes.get(index);
+            }
+        }
+        // Only reached when the caller debits more than the balance, which a plain MoneyModel also allows.
+        if (remaining > 0) {
+            stripes.getAndAdd(0, -remaining);
+        }
+    }
+
+    @Override
+    public long applyRate(double rate) {
+        long delta = (long) Math.rint(getMinorUnits() * rate);
+        add(delta);
+        return delta;
+    }
+}
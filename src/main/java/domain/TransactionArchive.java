@@ -0,0 +1,9 @@
+package main.java.domain;
+
+// Storage for transaction history blocks that no longer fit in an account's in-memory tail.
+public interface TransactionArchive {
+    // Returns the location the block can later be read back from.
+    long write(TransactionBlock block);
+
+    TransactionBlock read(long location);
+}
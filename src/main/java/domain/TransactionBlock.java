@@ -0,0 +1,203 @@
+package main.java.domain;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+
+// A run of transactions stored column by column: one primitive array per field instead of one TransactionModel
+// (with its UUID, MoneyModel and LocalDate) per transaction. Rows are only ever appended, up to the block's
+// capacity, and get(i) builds a TransactionModel only when a caller asks for one; scans read the columns they
+// need directly.
+//
+// The arrays start small and grow up to the capacity, so the many accounts with a short history stay cheap.
+// Nearly all rows share one rate version, so that column is only allocated once two rows differ in it.
+//
+// Not thread-safe; TransactionHistory guards its blocks with its own lock and hands readers full blocks or copies.
+public class TransactionBlock {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final CurrencyType[] CURRENCIES = CurrencyType.values();
+
+    private final int capacity;
+    private long[] idHigh;
+    private long[] idLow;
+    private int[] from;
+    private int[] to;
+    private long[] minorUnits;
+    private byte[] currencies;
+    private int[] epochDays;
+    private long[] rateVersions; // null while every row has firstRateVersion
+    private long firstRateVersion;
+    private int minEpochDay = Integer.MAX_VALUE;
+    private int maxEpochDay = Integer.MIN_VALUE;
+    private int size;
+
+    public TransactionBlock(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of a block must be positive");
+        }
+        this.capacity = capacity;
+        allocate(Math.min(capacity, INITIAL_CAPACITY));
+    }
+
+    public void append(TransactionModel transaction) {
+        append(transaction.getId().getMostSignificantBits(),
+                transaction.getId().getLeastSignificantBits(),
+                transaction.getFromHandle(),
+                transaction.getToHandle(),
+                transaction.getAmount().getMinorUnits(),
+                transaction.getAmount().getCurrency(),
+                transaction.getTimestamp().toEpochDay(),
+                transaction.getRateVersion());
+    }
+
+    public void append(long idHigh, long idLow, int from, int to, long minorUnits, CurrencyType currency, long epochDay, long rateVersion) {
+        if (size == capacity) {
+            throw new IllegalStateException("The transaction block is full");
+        }
+        if (size == this.idHigh.length) {
+            allocate(Math.min(capacity, size * 2));
+        }
+        int day = Math.toIntExact(epochDay);
+        this.idHigh[size] = idHigh;
+        this.idLow[size] = idLow;
+        this.from[size] = from;
+        this.to[size] = to;
+        this.minorUnits[size] = minorUnits;
+        this.currencies[size] = (byte) currency.ordinal();
+        this.epochDays[size] = day;
+        if (size == 0) {
+            firstRateVersion = rateVersion;
+        } else if (rateVersions == null && rateVersion != firstRateVersion) {
+            rateVersions = new long[this.idHigh.length];
+            Arrays.fill(rateVersions, 0, size, firstRateVersion);
+        }
+        if (rateVersions != null) {
+            rateVersions[size] = rateVersion;
+        }
+        minEpochDay = Math.min(minEpochDay, day);
+        maxEpochDay = Math.max(maxEpochDay, day);
+        size++;
+    }
+
+    // A block with the same rows that later appends to this one do not change.
+    public TransactionBlock copy() {
+        TransactionBlock copy = new TransactionBlock(capacity);
+        copy.idHigh = idHigh.clone();
+        copy.idLow = idLow.clone();
+        copy.from = from.clone();
+        copy.to = to.clone();
+        copy.minorUnits = minorUnits.clone();
+        copy.currencies = currencies.clone();
+        copy.epochDays = epochDays.clone();
+        copy.rateVersions = rateVersions == null ? null : rateVersions.clone();
+        copy.firstRateVersion = firstRateVersion;
+        copy.minEpochDay = minEpochDay;
+        copy.maxEpochDay = maxEpochDay;
+        copy.size = size;
+        return copy;
+    }
+
+    // Builds the TransactionModel of the row; changing it does not change the block.
+    public TransactionModel get(int row) {
+        checkRow(row);
+        return new TransactionModel(
+                new UUID(idHigh[row], idLow[row]),
+                from[row],
+                to[row],
+                MoneyModel.ofMinorUnits(minorUnits[row], CURRENCIES[currencies[row]]),
+                LocalDate.ofEpochDay(epochDays[row]),
+                getRateVersion(row)
+        );
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public long getIdHigh(int row) {
+        checkRow(row);
+        return idHigh[row];
+    }
+
+    public long getIdLow(int row) {
+        checkRow(row);
+        return idLow[row];
+    }
+
+    public int getFromHandle(int row) {
+        checkRow(row);
+        return from[row];
+    }
+
+    public int getToHandle(int row) {
+        checkRow(row);
+        return to[row];
+    }
+
+    public long getMinorUnits(int row) {
+        checkRow(row);
+        return minorUnits[row];
+    }
+
+    public CurrencyType getCurrency(int row) {
+        checkRow(row);
+        return CURRENCIES[currencies[row]];
+    }
+
+    public int getEpochDay(int row) {
+        checkRow(row);
+        return epochDays[row];
+    }
+
+    public long getRateVersion(int row) {
+        checkRow(row);
+        return rateVersions == null ? firstRateVersion : rateVersions[row];
+    }
+
+    // Date range of the rows, for skipping blocks outside a requested range. Empty blocks have
+    // min > max.
+    public int getMinEpochDay() {
+        return minEpochDay;
+    }
+
+    public int getMaxEpochDay() {
+        return maxEpochDay;
+    }
+
+    private void allocate(int length) {
+        if (idHigh == null) {
+            idHigh = new long[length];
+            idLow = new long[length];
+            from = new int[length];
+            to = new int[length];
+            minorUnits = new long[length];
+            currencies = new byte[length];
+            epochDays = new int[length];
+            return;
+        }
+        idHigh = Arrays.copyOf(idHigh, length);
+        idLow = Arrays.copyOf(idLow, length);
+        from = Arrays.copyOf(from, length);
+        to = Arrays.copyOf(to, length);
+        minorUnits = Arrays.copyOf(minorUnits, length);
+        currencies = Arrays.copyOf(currencies, length);
+        epochDays = Arrays.copyOf(epochDays, length);
+        if (rateVersions != null) {
+            rateVersions = Arrays.copyOf(rateVersions, length);
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside the block of " + size);
+        }
+    }
+}
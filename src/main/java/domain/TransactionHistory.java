@@ -0,0 +1,274 @@
+package main.java.domain;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+// Append-only transaction history of one account, in the order the transactions were recorded.
+//
+// Transactions are kept column by column in TransactionBlocks of half the tail capacity, and TransactionModels
+// are only built for the entries a caller reads. The most recent blocks stay on the heap. Once the tail reaches
+// its capacity, its oldest full blocks are written to the shared TransactionArchive and only their locations and
+// date ranges are kept. The writes happen on a background thread, never in append: callers append while holding
+// account locks, and a disk write there would stall every account on those lock stripes. A block stays in the
+// tail, readable as before, until its write has completed. Reads of archived blocks happen outside the lock as
+// well. Entries are addressed by their position in the history (0 is the oldest), so a page is found by jumping
+// straight to the block holding the cursor instead of walking the whole history, and blocks outside the
+// requested date range are skipped without being read.
+//
+// Without an archive (none configured) the tail simply keeps growing, as the plain list used to.
+//
+// The history of a striped account (see stripeAppends) also takes appends without its lock: they are buffered
+// in a StripedBuffer and merged, in no particular order between threads, before any other method runs.
+public class TransactionHistory {
+    public static final int DEFAULT_TAIL_CAPACITY = 256;
+
+    private static volatile TransactionArchive archive;
+    private static final ExecutorService SPILLER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transaction-history-spiller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int blockSize;
+    private final List<TransactionBlock> tail = new ArrayList<>(); // every block but the last is full
+    private TransactionArchive blockArchive; // the archive this history's blocks were written to
+    private long[] blockLocations = new long[0];
+    private long[] blockFirstDays = new long[0];
+    private long[] blockLastDays = new long[0];
+    private int blockCount;
+    private long size;
+    private boolean spillScheduled;
+    private volatile StripedBuffer<TransactionModel> concurrentAppends; // null unless appends are striped
+
+    public TransactionHistory() {
+        this(DEFAULT_TAIL_CAPACITY);
+    }
+
+    public TransactionHistory(int tailCapacity) {
+        if (tailCapacity < 2) {
+            throw new IllegalArgumentException("The tail must hold at least two transactions");
+        }
+        this.blockSize = tailCapacity / 2;
+    }
+
+    public TransactionHistory(List<TransactionModel> transactions) {
+        this();
+        // Nothing is buffered yet, so the entries go straight into the blocks.
+        transactions.forEach(this::appendLocked);
+    }
+
+    public static TransactionArchive getArchive() {
+        return archive;
+    }
+
+    public static void setArchive(TransactionArchive transactionArchive) {
+        archive = transactionArchive;
+    }
+
+    // Waits until every block spill scheduled so far has been written.
+    public static void awaitSpills() {
+        try {
+            SPILLER.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Waiting for the transaction history spills failed.", e);
+        }
+    }
+
+    // Lets appendConcurrently skip this history's lock; called when the account's balance is striped.
+    public void stripeAppends(int stripes) {
+        concurrentAppends = new StripedBuffer<>(stripes);
+    }
+
+    public synchronized void append(TransactionModel transaction) {
+        mergeBuffered();
+        appendLocked(transaction);
+    }
+
+    // Same as append, but for striped histories the entry is only buffered, so concurrent credits to a hot
+    // account do not queue up on this history's lock.
+    public void appendConcurrently(TransactionModel transaction) {
+        StripedBuffer<TransactionModel> buffer = concurrentAppends;
+        if (buffer == null) {
+            append(transaction);
+        } else if (buffer.add(transaction)) {
+            synchronized (this) {
+                mergeBuffered();
+            }
+        }
+    }
+
+    private void mergeBuffered() {
+        StripedBuffer<TransactionModel> buffer = concurrentAppends;
+        if (buffer != null) {
+            buffer.drainTo(this::appendLocked);
+        }
+    }
+
+    private void appendLocked(TransactionModel transaction) {
+        if (tail.isEmpty() || tail.get(tail.size() - 1).isFull()) {
+            tail.add(new TransactionBlock(blockSize));
+        }
+        tail.get(tail.size() - 1).append(transaction);
+        size++;
+        if (blockArchive == null) {
+            blockArchive = archive;
+        }
+        if (blockArchive != null && !spillScheduled && heapSize() >= 2 * blockSize) {
+            spillScheduled = true;
+            SPILLER.execute(this::spill);
+        }
+    }
+
+    public synchronized long size() {
+        mergeBuffered();
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        mergeBuffered();
+        return size == 0;
+    }
+
+    // Number of entries currently held on the heap.
+    public synchronized int inMemorySize() {
+        mergeBuffered();
+        return heapSize();
+    }
+
+    // Only called while holding the monitor; does not merge buffered appends.
+    private int heapSize() {
+        return (int) (size - (long) blockCount * blockSize);
+    }
+
+    // Up to pageSize transactions dated within [from, to] (either bound may be null), starting at cursor.
+    public TransactionPage page(LocalDate from, LocalDate to, long cursor, int pageSize) {
+        if (cursor < 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("The cursor must not be negative and the page size must be positive");
+        }
+        Snapshot history = snapshot();
+        long fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+        List<TransactionModel> transactions = new ArrayList<>(Math.min(pageSize, blockSize));
+
+        long position = cursor;
+        while (position < history.size() && transactions.size() < pageSize) {
+            int blockIndex = (int) (position / blockSize);
+            TransactionBlock block;
+            if (blockIndex < history.archivedBlocks()) {
+                if (history.lastDays()[blockIndex] < fromDay || history.firstDays()[blockIndex] > toDay) {
+                    position = (long) (blockIndex + 1) * blockSize;
+                    continue;
+                }
+                block = history.archive().read(history.locations()[blockIndex]);
+            } else {
+                block = history.tail().get(blockIndex - history.archivedBlocks());
+                if (block.getMaxEpochDay() < fromDay || block.getMinEpochDay() > toDay) {
+                    position = (long) (blockIndex + 1) * blockSize;
+                    continue;
+                }
+            }
+            int row = (int) (position - (long) blockIndex * blockSize);
+            for (; row < block.size() && transactions.size() < pageSize; row++, position++) {
+                long day = block.getEpochDay(row);
+                if (day >= fromDay && day <= toDay) {
+                    transactions.add(block.get(row));
+                }
+            }
+        }
+        return new TransactionPage(transactions, position < history.size() ? position : TransactionPage.END);
+    }
+
+    // Every transaction in the history; reads all archived blocks back.
+    public List<TransactionModel> toList() {
+        Snapshot history = snapshot();
+        List<TransactionModel> transactions = new ArrayList<>((int) Math.min(history.size(), Integer.MAX_VALUE));
+        forEachBlock(history, block -> {
+            for (int row = 0; row < block.size(); row++) {
+                transactions.add(block.get(row));
+            }
+        });
+        return transactions;
+    }
+
+    // Hands every block to the visitor, oldest first, reading archived blocks back. For scans that only need a
+    // few columns and should not build a TransactionModel per entry. The visitor must not keep the blocks.
+    public void forEachBlock(Consumer<TransactionBlock> visitor) {
+        forEachBlock(snapshot(), visitor);
+    }
+
+    private static void forEachBlock(Snapshot history, Consumer<TransactionBlock> visitor) {
+        for (int block = 0; block < history.archivedBlocks(); block++) {
+            visitor.accept(history.archive().read(history.locations()[block]));
+        }
+        history.tail().forEach(visitor);
+    }
+
+    // What readers need, taken under the monitor so that the archive is read without it: a slow read must not
+    // hold up appends, which run under the account locks. Archived entries of the location arrays never change
+    // (growing them copies), full tail blocks are no longer appended to, and the last block is copied.
+    private record Snapshot(long size, TransactionArchive archive, int archivedBlocks, long[] locations, long[] firstDays,
+                            long[] lastDays, List<TransactionBlock> tail) {
+    }
+
+    private synchronized Snapshot snapshot() {
+        mergeBuffered();
+        List<TransactionBlock> blocks = new ArrayList<>(tail);
+        int last = blocks.size() - 1;
+        if (last >= 0 && !blocks.get(last).isFull()) {
+            blocks.set(last, blocks.get(last).copy());
+        }
+        return new Snapshot(size, blockArchive, blockCount, blockLocations, blockFirstDays, blockLastDays, blocks);
+    }
+
+    // Runs on the spiller thread. The oldest block is full, so appends no longer change it and it can be written
+    // without holding the monitor.
+    private void spill() {
+        try {
+            while (true) {
+                TransactionBlock block;
+                synchronized (this) {
+                    if (heapSize() < 2 * blockSize) {
+                        return;
+                    }
+                    block = tail.get(0);
+                }
+                long location = blockArchive.write(block);
+                synchronized (this) {
+                    if (blockCount == blockLocations.length) {
+                        int capacity = Math.max(4, blockCount * 2);
+                        blockLocations = Arrays.copyOf(blockLocations, capacity);
+                        blockFirstDays = Arrays.copyOf(blockFirstDays, capacity);
+                        blockLastDays = Arrays.copyOf(blockLastDays, capacity);
+                    }
+                    blockLocations[blockCount] = location;
+                    blockFirstDays[blockCount] = block.getMinEpochDay();
+                    blockLastDays[blockCount] = block.getMaxEpochDay();
+                    blockCount++;
+                    tail.remove(0);
+                }
+            }
+        } finally {
+            // A failed write leaves the block in the tail; the next append schedules another attempt.
+            synchronized (this) {
+                spillScheduled = false;
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        mergeBuffered();
+        return "TransactionHistory{" +
+                "size=" + size +
+                ", inMemory=" + heapSize() +
+                '}';
+    }
+}
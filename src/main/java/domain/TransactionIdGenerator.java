@@ -0,0 +1,14 @@
+package main.java.domain;
+
+import java.util.UUID;
+
+// Source of TransactionModel ids. Ids stay UUIDs so existing consumers keep working whichever generator is used.
+@FunctionalInterface
+public interface TransactionIdGenerator {
+    UUID nextId();
+
+    // The random version 4 ids transactions used to get; every call goes through SecureRandom.
+    static TransactionIdGenerator random() {
+        return UUID::randomUUID;
+    }
+}
@@ -3,20 +3,32 @@ package main.java.domain;
 import java.time.LocalDate;
 import java.util.UUID;
 
+// The accounts are kept as AccountIdDictionary handles; getFrom()/getTo() return the ids. A null id is kept as
+// handle -1 and read back as null.
 public class TransactionModel {
     private UUID id;
-    private String from;
-    private String to; // another account if transfer or the same account (as from) if money is withdrawn
+    private int from;
+    private int to; // another account if transfer or the same account (as from) if money is withdrawn
     private MoneyModel amount;
     private LocalDate timestamp;
+    private long rateVersion; // version of the exchange rate table the amounts were converted with
 
     public TransactionModel(UUID id, String from, String to, MoneyModel amount, LocalDate timestamp) {
+        this(id, from, to, amount, timestamp, 0);
+    }
+
+    public TransactionModel(UUID id, String from, String to, MoneyModel amount, LocalDate timestamp, long rateVersion) {
+        this(id, AccountIdDictionary.INSTANCE.handleOf(from), AccountIdDictionary.INSTANCE.handleOf(to), amount, timestamp, rateVersion);
+    }
+
+    public TransactionModel(UUID id, int from, int to, MoneyModel amount, LocalDate timestamp, long rateVersion) {
         this.id = id;
         this.from = from;
         this.to = to;
         this.amount = amount;
         this.timestamp = timestamp;
-
+        this.rateVersion = rateVersion;
+        AccountIdDictionary.INSTANCE.name(from, to);
     }
 
     public UUID getId() {
@@ -28,19 +40,29 @@ public class TransactionModel {
     }
 
     public String getFrom() {
-        return from;
+        return AccountIdDictionary.INSTANCE.idOf(from);
     }
 
     public void setFrom(String from) {
-        this.from = from;
+        this.from = AccountIdDictionary.INSTANCE.handleOf(from);
+        AccountIdDictionary.INSTANCE.name(this.from, to);
+    }
+
+    public int getFromHandle() {
+        return from;
     }
 
     public String getTo() {
-        return to;
+        return AccountIdDictionary.INSTANCE.idOf(to);
     }
 
     public void setTo(String to) {
-        this.to = to;
+        this.to = AccountIdDictionary.INSTANCE.handleOf(to);
+        AccountIdDictionary.INSTANCE.name(from, this.to);
+    }
+
+    public int getToHandle() {
+        return to;
     }
 
     public MoneyModel getAmount() {
@@ -59,14 +81,23 @@ public class TransactionModel {
         this.timestamp = timestamp;
     }
 
+    public long getRateVersion() {
+        return rateVersion;
+    }
+
+    public void setRateVersion(long rateVersion) {
+        this.rateVersion = rateVersion;
+    }
+
     @Override
     public String toString() {
         return "TransactionModel{" +
                 "id='" + id + '\'' +
-                ", from='" + from + '\'' +
-                ", to='" + to + '\'' +
+                ", from='" + getFrom() + '\'' +
+                ", to='" + getTo() + '\'' +
                 ", amount=" + amount +
                 ", timestamp=" + timestamp +
+                ", rateVersion=" + rateVersion +
                 '}';
     }
 }
@@ -0,0 +1,36 @@
+package main.java.domain;
+
+import java.util.List;
+
+public class TransactionPage {
+    public static final long END = -1;
+
+    private final List<TransactionModel> transactions;
+    private final long nextCursor;
+
+    public TransactionPage(List<TransactionModel> transactions, long nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TransactionModel> getTransactions() {
+        return transactions;
+    }
+
+    // Cursor to pass to the next retrieveTransactions call, or END when the history has been exhausted.
+    public long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != END;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionPage{" +
+                "transactions=" + transactions +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package main.java.domain;
+
+// Outcome of one transfer or withdrawal: either the committed transaction or the reason it was rejected.
+// Rejected results carry no per-call state, so one shared instance per reason is handed out.
+public class TransactionResult {
+    private static final TransactionResult[] REJECTED = new TransactionResult[RejectionReason.values().length];
+
+    static {
+        for (RejectionReason reason : RejectionReason.values()) {
+            REJECTED[reason.ordinal()] = new TransactionResult(null, reason);
+        }
+    }
+
+    private final TransactionModel transaction;
+    private final RejectionReason rejectionReason;
+
+    private TransactionResult(TransactionModel transaction, RejectionReason rejectionReason) {
+        this.transaction = transaction;
+        this.rejectionReason = rejectionReason;
+    }
+
+    public static TransactionResult accepted(TransactionModel transaction) {
+        return new TransactionResult(transaction, null);
+    }
+
+    public static TransactionResult rejected(RejectionReason reason) {
+        return REJECTED[reason.ordinal()];
+    }
+
+    public boolean isAccepted() {
+        return rejectionReason == null;
+    }
+
+    public TransactionModel getTransaction() {
+        return transaction;
+    }
+
+    public RejectionReason getRejectionReason() {
+        return rejectionReason;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionResult{" +
+                "transaction=" + transaction +
+                ", rejectionReason=" + rejectionReason +
+                '}';
+    }
+}
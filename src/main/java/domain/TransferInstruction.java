@@ -0,0 +1,46 @@
+package main.java.domain;
+
+public class TransferInstruction {
+    private String fromAccountId;
+    private String toAccountId;
+    private MoneyModel amount;
+
+    public TransferInstruction(String fromAccountId, String toAccountId, MoneyModel amount) {
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+    }
+
+    public String getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public void setFromAccountId(String fromAccountId) {
+        this.fromAccountId = fromAccountId;
+    }
+
+    public String getToAccountId() {
+        return toAccountId;
+    }
+
+    public void setToAccountId(String toAccountId) {
+        this.toAccountId = toAccountId;
+    }
+
+    public MoneyModel getAmount() {
+        return amount;
+    }
+
+    public void setAmount(MoneyModel amount) {
+        this.amount = amount;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferInstruction{" +
+                "fromAccountId='" + fromAccountId + '\'' +
+                ", toAccountId='" + toAccountId + '\'' +
+                ", amount=" + amount +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package main.java.domain;
+
+import java.time.LocalDate;
+
+// Sum of an account's daily rollups over a date range.
+public class Turnover {
+    private final LocalDate from;
+    private final LocalDate to;
+    private final MoneyModel debits;
+    private final MoneyModel credits;
+    private final long transactionCount;
+
+    public Turnover(LocalDate from, LocalDate to, MoneyModel debits, MoneyModel credits, long transactionCount) {
+        this.from = from;
+        this.to = to;
+        this.debits = debits;
+        this.credits = credits;
+        this.transactionCount = transactionCount;
+    }
+
+    // Either bound is null when the range was open on that side.
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public MoneyModel getDebits() {
+        return debits;
+    }
+
+    public MoneyModel getCredits() {
+        return credits;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "Turnover{" +
+                "from=" + from +
+                ", to=" + to +
+                ", debits=" + debits +
+                ", credits=" + credits +
+                ", transactionCount=" + transactionCount +
+                '}';
+    }
+}
@@ -0,0 +1,87 @@
+package main.java.metrics;
+
+import main.java.domain.RejectionReason;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency and rejection counts of one service operation. Every call is counted, rejected ones included, and
+// rejections are additionally counted by reason. Reading the clock costs tens of nanoseconds, which is a lot
+// next to a balance lookup, so cheap operations only time a random sample of their calls; the percentiles
+// are those of the sample.
+public class OperationMetrics {
+    private final String name;
+    private final int sampleMask;
+    private final LongAdder calls = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder[] rejections = new LongAdder[RejectionReason.values().length];
+
+    public OperationMetrics(String name) {
+        this(name, 1);
+    }
+
+    // sampleEvery must be a power of two; one call in sampleEvery is timed.
+    public OperationMetrics(String name, int sampleEvery) {
+        if (Integer.bitCount(sampleEvery) != 1) {
+            throw new IllegalArgumentException("The sampling interval must be a power of two");
+        }
+        this.name = name;
+        this.sampleMask = sampleEvery - 1;
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+    }
+
+    // Returns the start time to pass to stop(), or 0 when this call is not timed. Both do nothing when
+    // metrics are disabled.
+    public long start() {
+        if (!ServiceMetrics.ENABLED) {
+            return 0;
+        }
+        calls.increment();
+        if (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    public void stop(long start) {
+        if (ServiceMetrics.ENABLED && start != 0) {
+            latencies.record(System.nanoTime() - start);
+        }
+    }
+
+    public void reject(RejectionReason reason) {
+        if (ServiceMetrics.ENABLED) {
+            rejections[reason.ordinal()].increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return calls.sum();
+    }
+
+    public long getTimedCount() {
+        return latencies.getCount();
+    }
+
+    public long getRejections(RejectionReason reason) {
+        return rejections[reason.ordinal()].sum();
+    }
+
+    public long getValueAtPercentile(double percentile) {
+        return latencies.getValueAtPercentile(percentile);
+    }
+
+    public void reset() {
+        calls.reset();
+        latencies.reset();
+        for (LongAdder rejection : rejections) {
+            rejection.reset();
+        }
+    }
+}
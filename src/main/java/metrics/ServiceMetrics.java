@@ -0,0 +1,87 @@
+package main.java.metrics;
+
+import main.java.domain.RejectionReason;
+
+import java.util.List;
+
+// Metrics of the transaction and savings services. Recording is on by default; -Dbanking.metrics=false turns
+// every start/stop/reject call into a no-op. The report covers everything recorded since startup or the last
+// reset().
+public class ServiceMetrics {
+    public static final boolean ENABLED = !"false".equals(System.getProperty("banking.metrics"));
+
+    public static final OperationMetrics TRANSFER = new OperationMetrics("transfer");
+    public static final OperationMetrics TRANSFER_BATCH = new OperationMetrics("transferBatch");
+    public static final OperationMetrics WITHDRAW = new OperationMetrics("withdraw");
+    public static final OperationMetrics CHECK_FUNDS = new OperationMetrics("checkFunds", 16);
+    public static final OperationMetrics RETRIEVE_TRANSACTIONS = new OperationMetrics("retrieveTransactions");
+    public static final OperationMetrics PASS_TIME = new OperationMetrics("passTime");
+    public static final OperationMetrics ROLLUP_QUERY = new OperationMetrics("rollupQuery");
+
+    private static final List<OperationMetrics> OPERATIONS =
+            List.of(TRANSFER, TRANSFER_BATCH, WITHDRAW, CHECK_FUNDS, RETRIEVE_TRANSACTIONS, PASS_TIME, ROLLUP_QUERY);
+
+    private static volatile long startedAt = System.nanoTime();
+
+    private ServiceMetrics() {
+    }
+
+    public static List<OperationMetrics> getOperations() {
+        return OPERATIONS;
+    }
+
+    public static void reset() {
+        OPERATIONS.forEach(OperationMetrics::reset);
+        startedAt = System.nanoTime();
+    }
+
+    public static String dumpText() {
+        double seconds = elapsedSeconds();
+        StringBuilder text = new StringBuilder(String.format("%-22s %10s %12s %10s %10s %10s%n", "operation", "count", "ops/s", "p50 us", "p99 us", "p999 us"));
+        for (OperationMetrics operation : OPERATIONS) {
+            text.append(String.format("%-22s %10d %12.1f %10.1f %10.1f %10.1f%n", operation.getName(), operation.getCount(),
+                    operation.getCount() / seconds, micros(operation, 50), micros(operation, 99), micros(operation, 99.9)));
+            for (RejectionReason reason : RejectionReason.values()) {
+                long rejections = operation.getRejections(reason);
+                if (rejections > 0) {
+                    text.append(String.format("    rejected %-20s %10d%n", reason, rejections));
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    public static String dumpJson() {
+        double seconds = elapsedSeconds();
+        StringBuilder json = new StringBuilder("{\"elapsedSeconds\":").append(seconds).append(",\"operations\":[");
+        for (int i = 0; i < OPERATIONS.size(); i++) {
+            OperationMetrics operation = OPERATIONS.get(i);
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"name\":\"").append(operation.getName()).append('"')
+                    .append(",\"count\":").append(operation.getCount())
+                    .append(",\"throughput\":").append(operation.getCount() / seconds)
+                    .append(",\"p50Nanos\":").append(operation.getValueAtPercentile(50))
+                    .append(",\"p99Nanos\":").append(operation.getValueAtPercentile(99))
+                    .append(",\"p999Nanos\":").append(operation.getValueAtPercentile(99.9))
+                    .append(",\"rejections\":{");
+            boolean first = true;
+            for (RejectionReason reason : RejectionReason.values()) {
+                long rejections = operation.getRejections(reason);
+                if (rejections > 0) {
+                    json.append(first ? "" : ",").append('"').append(reason).append("\":").append(rejections);
+                    first = false;
+                }
+            }
+            json.append("}}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static double elapsedSeconds() {
+        return Math.max(1e-9, (System.nanoTime() - startedAt) / 1e9);
+    }
+
+    private static double micros(OperationMetrics operation, double percentile) {
+        return operation.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,138 @@
+package main.java.repository;
+
+import main.java.domain.AccountIdDictionary;
+import main.java.domain.AccountModel;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+// The repository's accounts by AccountIdDictionary handle. Handles are dense, so this is an array lookup
+// instead of hashing and comparing the id string. The array is split into fixed pages that are only ever
+// added, so a lookup never locks and growing never copies the entries.
+//
+// The index also owns the accounts' dictionary entries: it acquires the id of every account added to the
+// repository, hands the account its handle, and releases the handle when the account is removed. Listeners
+// that key anything by handle have to be registered before it, so they still see a removed account's handle
+// as its own.
+//
+// Over a heap store the pages hold the accounts themselves. Over a MappedAccountStore they hold record slots
+// and each lookup builds a fresh flyweight view, as MappedAccountStore.get does, so the index keeps no
+// per-account objects alive; the accounts recorded in earlier runs are indexed when the index is created.
+public final class AccountHandleIndex implements RepositoryListener<AccountModel> {
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final MappedAccountStore mappedStore; // null over a heap store
+    private volatile AtomicReferenceArray<AccountModel>[] accountPages = newAccountPages(16);
+    private volatile AtomicIntegerArray[] slotPages = new AtomicIntegerArray[16]; // slot + 1, 0 for none
+
+    public AccountHandleIndex() {
+        this(null);
+    }
+
+    public AccountHandleIndex(Database<AccountModel> accounts) {
+        this.mappedStore = accounts instanceof MappedAccountStore store ? store : null;
+        if (accounts != null) {
+            accounts.forEach(account -> onAdded(account.getId(), account));
+        }
+    }
+
+    // The account with the given handle, or null if there is none in the repository.
+    public AccountModel get(int handle) {
+        if (handle < 0) {
+            return null;
+        }
+        int page = handle >>> PAGE_BITS;
+        int index = handle & (PAGE_SIZE - 1);
+        if (mappedStore == null) {
+            AtomicReferenceArray<AccountModel>[] current = accountPages;
+            return page < current.length && current[page] != null ? current[page].get(index) : null;
+        }
+
+        AtomicIntegerArray[] current = slotPages;
+        int slot = page < current.length && current[page] != null ? current[page].get(index) - 1 : -1;
+        AccountModel account = mappedStore.viewIfUsed(slot);
+        if (account != null) {
+            account.setHandle(handle);
+        }
+        return account;
+    }
+
+    // The account with the given id, found through its handle, so the id is hashed once by the dictionary
+    // instead of again by the store.
+    public AccountModel get(String id) {
+        return get(AccountIdDictionary.INSTANCE.find(id));
+    }
+
+    @Override
+    public void onAdded(String id, AccountModel value) {
+        int handle = AccountIdDictionary.INSTANCE.acquire(id);
+        value.setHandle(handle);
+        int index = handle & (PAGE_SIZE - 1);
+        if (mappedStore == null) {
+            accountPage(handle).set(index, value);
+        } else {
+            slotPage(handle).set(index, mappedStore.slotOf(value) + 1);
+        }
+    }
+
+    // A replaced account is removed before its replacement is added, but the two notifications are not ordered
+    // against those of other threads, so only the entry of the removed account itself is cleared.
+    @Override
+    public void onRemoved(String id, AccountModel value) {
+        if (value.getHandle() < 0) {
+            return;
+        }
+        int index = value.getHandle() & (PAGE_SIZE - 1);
+        if (mappedStore == null) {
+            accountPage(value.getHandle()).compareAndSet(index, value, null);
+        } else {
+            slotPage(value.getHandle()).compareAndSet(index, mappedStore.slotOf(value) + 1, 0);
+        }
+        AccountIdDictionary.INSTANCE.release(value.getHandle());
+    }
+
+    private AtomicReferenceArray<AccountModel> accountPage(int handle) {
+        int page = handle >>> PAGE_BITS;
+        AtomicReferenceArray<AccountModel>[] current = accountPages;
+        if (page < current.length && current[page] != null) {
+            return current[page];
+        }
+        synchronized (this) {
+            current = withPage(accountPages, page, () -> new AtomicReferenceArray<>(PAGE_SIZE));
+            accountPages = current;
+            return current[page];
+        }
+    }
+
+    private AtomicIntegerArray slotPage(int handle) {
+        int page = handle >>> PAGE_BITS;
+        AtomicIntegerArray[] current = slotPages;
+        if (page < current.length && current[page] != null) {
+            return current[page];
+        }
+        synchronized (this) {
+            current = withPage(slotPages, page, () -> new AtomicIntegerArray(PAGE_SIZE));
+            slotPages = current;
+            return current[page];
+        }
+    }
+
+    // Only called while holding the monitor; returns the given pages, or a larger copy, with the page present.
+    private static <P> P[] withPage(P[] pages, int page, Supplier<P> newPage) {
+        if (page >= pages.length) {
+            pages = Arrays.copyOf(pages, Math.max(page + 1, pages.length * 2));
+        }
+        if (pages[page] == null) {
+            pages[page] = newPage.get();
+        }
+        return pages;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Java has no generic array creation
+    private static AtomicReferenceArray<AccountModel>[] newAccountPages(int count) {
+        return (AtomicReferenceArray<AccountModel>[]) new AtomicReferenceArray[count];
+    }
+}
@@ -0,0 +1,85 @@
+package main.java.repository;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Account locks striped by AccountIdDictionary handle. Handles are dense, so consecutive accounts fall on
+// consecutive stripes without hashing the id; an account outside the repository (handle -1) uses the last one.
+public class AccountLocks {
+    public static final AccountLocks INSTANCE = new AccountLocks(1024);
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public AccountLocks(int stripeCount) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("The stripe count must be a positive power of two.");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        this.mask = stripeCount - 1;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public int stripeOf(int handle) {
+        return handle & mask;
+    }
+
+    public void lock(int handle) {
+        stripes[stripeOf(handle)].lock();
+    }
+
+    public void unlock(int handle) {
+        stripes[stripeOf(handle)].unlock();
+    }
+
+    // Stripes are always taken in ascending index order so two transfers over the same pair of accounts
+    // (in either direction) can never wait on each other in a cycle.
+    public void lock(int firstHandle, int secondHandle) {
+        int first = stripeOf(firstHandle);
+        int second = stripeOf(secondHandle);
+
+        if (first == second) {
+            stripes[first].lock();
+        } else if (first < second) {
+            stripes[first].lock();
+            stripes[second].lock();
+        } else {
+            stripes[second].lock();
+            stripes[first].lock();
+        }
+    }
+
+    public void unlock(int firstHandle, int secondHandle) {
+        int first = stripeOf(firstHandle);
+        int second = stripeOf(secondHandle);
+
+        stripes[first].unlock();
+        if (first != second) {
+            stripes[second].unlock();
+        }
+    }
+
+    // Locks the stripes in stripes[0, count) for a batch, following the same ascending order as the pair lock.
+    // The array is sorted and deduplicated in place; pass it back to unlockStripes with the returned count.
+    public int lockStripes(int[] stripes, int count) {
+        Arrays.sort(stripes, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || stripes[i] != stripes[distinct - 1]) {
+                stripes[distinct++] = stripes[i];
+            }
+        }
+        for (int i = 0; i < distinct; i++) {
+            this.stripes[stripes[i]].lock();
+        }
+        return distinct;
+    }
+
+    public void unlockStripes(int[] stripes, int distinct) {
+        for (int i = distinct - 1; i >= 0; i--) {
+            this.stripes[stripes[i]].unlock();
+        }
+    }
+}
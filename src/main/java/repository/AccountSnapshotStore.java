@@ -0,0 +1,243 @@
+package main.java.repository;
+
+import main.java.domain.AccountModel;
+import main.java.domain.CapitalizationFrequency;
+import main.java.domain.CardModel;
+import main.java.domain.CheckingAccountModel;
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.SavingsAccountModel;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Point-in-time copies of every account (balance, journal sequence, card and savings state) stored next to the
+// transaction journal as snapshot-<segment>.bin, where <segment> is the first journal segment the snapshot
+// does not cover.
+//
+// A snapshot is taken without stopping transfers: the journal is rolled to a new segment first, then each
+// account is copied under its own lock. Journal records are appended while their accounts are locked, so every
+// record in the older segments belongs to a change that was applied before the roll and is therefore already
+// part of the copied state; those segments are deleted once the snapshot is on disk.
+// Entries in the newer segments that the snapshot already reflects are skipped on replay by comparing
+// journal sequences.
+public class AccountSnapshotStore {
+    private static final int MAGIC = 0x42534e50;
+    private static final int VERSION = 1;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final Database<AccountModel> accounts;
+    private final TransactionJournal journal;
+    private final Path directory;
+
+    public AccountSnapshotStore(Database<AccountModel> accounts, TransactionJournal journal) {
+        this.accounts = accounts;
+        this.journal = journal;
+        this.directory = journal.getDirectory();
+    }
+
+    public synchronized SnapshotReport takeSnapshot() throws IOException {
+        long start = System.nanoTime();
+        int segment = journal.rollSegment();
+        Path target = snapshotFile(directory, segment);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        long count = 0;
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+        DataOutputStream record = new DataOutputStream(recordBytes);
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(segment);
+            for (AccountModel account : accounts.values()) {
+                // Only the in-memory copy happens under the account lock; file I/O never blocks a transfer.
+                recordBytes.reset();
+                int handle = account.getHandle();
+                AccountLocks.INSTANCE.lock(handle);
+                try {
+                    writeAccount(record, account);
+                } finally {
+                    AccountLocks.INSTANCE.unlock(handle);
+                }
+                out.writeBoolean(true);
+                recordBytes.writeTo(out);
+                count++;
+            }
+            out.writeBoolean(false);
+            out.writeLong(count);
+            out.flush();
+            file.getFD().sync();
+        }
+
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (int existing : listSnapshots(directory)) {
+            if (existing < segment) {
+                Files.deleteIfExists(snapshotFile(directory, existing));
+            }
+        }
+        journal.deleteSegmentsBefore(segment);
+
+        return new SnapshotReport(segment, count, Files.size(target), System.nanoTime() - start);
+    }
+
+    public ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, Duration period) {
+        return scheduler.scheduleAtFixedRate(() -> {
+            try {
+                takeSnapshot();
+            } catch (IOException e) {
+                throw new RuntimeException("The account snapshot could not be written.", e);
+            }
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Restores the accounts of the latest snapshot in the directory, replacing seeded accounts with the same id.
+    // The journal tail still has to be replayed afterwards. Restored repository accounts have no daily rollups
+    // for the day the snapshot file was written or earlier, as their transactions are not in the snapshot.
+    public static SnapshotReport loadLatest(Path directory, Database<AccountModel> accounts) throws IOException {
+        long start = System.nanoTime();
+        if (!Files.isDirectory(directory)) {
+            return new SnapshotReport(0, 0, 0, System.nanoTime() - start);
+        }
+        List<Integer> snapshots = listSnapshots(directory);
+        if (snapshots.isEmpty()) {
+            return new SnapshotReport(0, 0, 0, System.nanoTime() - start);
+        }
+
+        Path file = snapshotFile(directory, snapshots.get(snapshots.size() - 1));
+        LocalDate snapshotDay = LocalDate.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault());
+        long count = 0;
+        int segment;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Unsupported snapshot file: " + file);
+            }
+            segment = in.getInt();
+            while (in.get() != 0) {
+                AccountModel account = readAccount(in);
+                accounts.add(account.getId(), account);
+                if (accounts == AccountsRepository.INSTANCE) {
+                    AccountsRepository.ROLLUP_INDEX.markRestored(accounts.get(account.getId()), snapshotDay);
+                }
+                count++;
+            }
+            if (in.getLong() != count) {
+                throw new IOException("The snapshot file is incomplete: " + file);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("The snapshot file is truncated: " + file, e);
+        }
+        return new SnapshotReport(segment, count, Files.size(file), System.nanoTime() - start);
+    }
+
+    private static void writeAccount(DataOutputStream out, AccountModel account) throws IOException {
+        writeString(out, account.getId());
+        out.writeByte(account.getAccountType().ordinal());
+        out.writeLong(account.getBalance().getMinorUnits());
+        out.writeByte(account.getBalance().getCurrency().ordinal());
+        out.writeLong(account.getJournalSequence());
+
+        if (account instanceof CheckingAccountModel checkingAccount) {
+            CardModel card = checkingAccount.getAssociatedCard();
+            out.writeBoolean(card != null);
+            if (card != null) {
+                out.writeLong(card.getCardNumber());
+                writeString(out, card.getCardHolderName());
+                out.writeInt(card.getCvv());
+                writeDate(out, card.getExpirationDate());
+                writeDate(out, card.getIssueDate());
+                out.writeBoolean(card.isContactless());
+                out.writeBoolean(card.isActive());
+                out.writeDouble(card.getDailyWithdrawalLimit());
+                out.writeDouble(card.getDailyTransactionLimit());
+            }
+        } else if (account instanceof SavingsAccountModel savingsAccount) {
+            out.writeDouble(savingsAccount.getInterest());
+            out.writeByte(savingsAccount.getInterestFrequency() == null ? -1 : savingsAccount.getInterestFrequency().ordinal());
+            writeDate(out, savingsAccount.getLastInterestAppliedDate());
+        }
+    }
+
+    private static AccountModel readAccount(ByteBuffer in) {
+        String id = readString(in);
+        byte type = in.get();
+        long minorUnits = in.getLong();
+        CurrencyType currency = CurrencyType.values()[in.get()];
+        long journalSequence = in.getLong();
+        MoneyModel balance = MoneyModel.ofMinorUnits(minorUnits, currency);
+
+        AccountModel account;
+        if (type == 0) {
+            CardModel card = null;
+            if (in.get() != 0) {
+                card = new CardModel(in.getLong(), readString(in), in.getInt(), readDate(in), readDate(in),
+                        in.get() != 0, in.get() != 0, in.getDouble(), in.getDouble());
+            }
+            account = new CheckingAccountModel(id, balance, new ArrayList<>(), card);
+        } else {
+            double interest = in.getDouble();
+            byte frequency = in.get();
+            account = new SavingsAccountModel(id, balance, new ArrayList<>(), interest,
+                    frequency < 0 ? null : CapitalizationFrequency.values()[frequency], readDate(in));
+        }
+        account.setJournalSequence(journalSequence);
+        return account;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        long epochDay = in.getLong();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static Path snapshotFile(Path directory, int segment) {
+        return directory.resolve(String.format("snapshot-%06d.bin", segment));
+    }
+
+    private static List<Integer> listSnapshots(Path directory) throws IOException {
+        List<Integer> snapshots = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith("snapshot-") && name.endsWith(".bin"))
+                    .forEach(name -> snapshots.add(Integer.parseInt(name.substring("snapshot-".length(), name.length() - ".bin".length()))));
+        }
+        snapshots.sort(null);
+        return snapshots;
+    }
+}
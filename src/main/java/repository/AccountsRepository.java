@@ -1,7 +1,57 @@
 package main.java.repository;
 
 import main.java.domain.AccountModel;
+import main.java.domain.TransactionHistory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
 
 public class AccountsRepository {
-    public static final InMemoryDatabase<AccountModel> INSTANCE = new InMemoryDatabase<>();
+    public static final Database<AccountModel> INSTANCE = createStore();
+    public static final InterestDueIndex INTEREST_DUE_INDEX = new InterestDueIndex();
+    public static final AccountHandleIndex HANDLE_INDEX = new AccountHandleIndex(INSTANCE);
+    public static final DailyRollupIndex ROLLUP_INDEX = new DailyRollupIndex();
+
+    // The handle index goes last: it releases a removed account's handle, which the rollup index still needs.
+    static {
+        INSTANCE.addListener(INTEREST_DUE_INDEX);
+        INSTANCE.addListener(ROLLUP_INDEX);
+        INSTANCE.addListener(CardsRepository.INSTANCE);
+        INSTANCE.addListener(HANDLE_INDEX);
+        // The accounts of a mapped store from an earlier run come with their cards, but without the transactions
+        // of that run.
+        if (INSTANCE instanceof MappedAccountStore) {
+            LocalDate today = LocalDate.now();
+            INSTANCE.forEach(account -> {
+                CardsRepository.INSTANCE.onAdded(account.getId(), account);
+                ROLLUP_INDEX.markRestored(account, today);
+            });
+        }
+        TransactionHistory.setArchive(openHistoryStore());
+    }
+
+    // Accounts live on the heap unless -Dbanking.accountStore=<file> selects the memory-mapped store.
+    private static Database<AccountModel> createStore() {
+        String mappedStoreFile = System.getProperty("banking.accountStore");
+        if (mappedStoreFile == null) {
+            return new InMemoryDatabase<>();
+        }
+        try {
+            return MappedAccountStore.open(Path.of(mappedStoreFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("The account store could not be opened.", e);
+        }
+    }
+
+    // Older history is spilled to -Dbanking.historyFile=<file>, or to a temporary file when it is not set.
+    private static TransactionHistoryStore openHistoryStore() {
+        String historyFile = System.getProperty("banking.historyFile");
+        try {
+            return historyFile == null ? TransactionHistoryStore.openTemporary() : TransactionHistoryStore.open(Path.of(historyFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("The transaction history store could not be opened.", e);
+        }
+    }
 }
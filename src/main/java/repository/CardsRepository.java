@@ -0,0 +1,46 @@
+package main.java.repository;
+
+import main.java.domain.AccountModel;
+import main.java.domain.CardModel;
+import main.java.domain.CheckingAccountModel;
+
+// Index from card number to the checking account the card belongs to, maintained as accounts are added to and
+// removed from the account repository, so a card-present operation finds its account in constant time.
+// A card swapped on an account that is already stored is picked up when the account is added again.
+public class CardsRepository implements RepositoryListener<AccountModel> {
+    public static final CardsRepository INSTANCE = new CardsRepository();
+
+    // Keyed by card number + 1, since LongKeyedMap reserves key 0.
+    private final LongKeyedMap<AccountModel> accountsByCard = new LongKeyedMap<>(1024);
+
+    public AccountModel getAccount(long cardNumber) {
+        return accountsByCard.get(cardNumber + 1);
+    }
+
+    public CardModel getCard(long cardNumber) {
+        AccountModel account = accountsByCard.get(cardNumber + 1);
+        return account instanceof CheckingAccountModel checkingAccount ? checkingAccount.getAssociatedCard() : null;
+    }
+
+    public boolean exist(long cardNumber) {
+        return accountsByCard.containsKey(cardNumber + 1);
+    }
+
+    public int size() {
+        return accountsByCard.size();
+    }
+
+    @Override
+    public void onAdded(String id, AccountModel value) {
+        if (value instanceof CheckingAccountModel checkingAccount && checkingAccount.getAssociatedCard() != null) {
+            accountsByCard.put(checkingAccount.getAssociatedCard().getCardNumber() + 1, value);
+        }
+    }
+
+    @Override
+    public void onRemoved(String id, AccountModel value) {
+        if (value instanceof CheckingAccountModel checkingAccount && checkingAccount.getAssociatedCard() != null) {
+            accountsByCard.remove(checkingAccount.getAssociatedCard().getCardNumber() + 1, value);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package main.java.repository;
+
+import main.java.domain.AccountModel;
+import main.java.domain.DailyRollups;
+import main.java.domain.StripedMoneyModel;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+// The repository's accounts' DailyRollups by AccountIdDictionary handle. An account gets its rollups with its
+// first recorded transaction and loses them when it is removed, so an id that is added again starts over.
+//
+// The rollups live only in memory. Replaying the journal into the repository rebuilds them from the replayed
+// transfers and withdrawals. Accounts whose state was restored without its transactions (from a snapshot, or
+// from a mapped store of an earlier run) are marked as restored: their rollups only start the day after the
+// restored state (see DailyRollups.startAfter), and find() creates them even before the first transaction, so
+// queries reaching further back fail instead of reading as zero. A single bit per account is kept for this
+// until it is needed, since a mapped store may hold far more accounts than ever transact.
+public class DailyRollupIndex implements RepositoryListener<AccountModel> {
+    // Keyed by handle + 1, since LongKeyedMap reserves key 0.
+    private final LongKeyedMap<DailyRollups> rollups = new LongKeyedMap<>();
+    // Handles of restored accounts without rollups yet; guarded by the rollups' monitor.
+    private final BitSet restored = new BitSet();
+    private LocalDate restoredDay;
+
+    // The account's rollups, or null if nothing has been recorded for it yet and it was not restored.
+    public DailyRollups find(AccountModel account) {
+        DailyRollups existing = rollups.get(account.getHandle() + 1L);
+        if (existing != null || account.getHandle() < 0) {
+            return existing;
+        }
+        synchronized (rollups) {
+            return restored.get(account.getHandle()) ? of(account) : null;
+        }
+    }
+
+    public DailyRollups of(AccountModel account) {
+        long key = account.getHandle() + 1L;
+        DailyRollups existing = rollups.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (rollups) {
+            existing = rollups.get(key);
+            if (existing == null) {
+                existing = new DailyRollups(account.getBalance().getCurrency());
+                if (account.getBalance() instanceof StripedMoneyModel striped) {
+                    existing.stripeRecords(striped.getStripeCount());
+                }
+                if (restored.get(account.getHandle())) {
+                    restored.clear(account.getHandle());
+                    existing.startAfter(restoredDay);
+                }
+                rollups.put(key, existing);
+            }
+            return existing;
+        }
+    }
+
+    // Marks the account as restored with the state it had at the end of the given day. Every restored account
+    // shares the latest such day, which is in practice the day of the one snapshot loaded at startup.
+    public void markRestored(AccountModel account, LocalDate day) {
+        if (account.getHandle() < 0) {
+            return;
+        }
+        synchronized (rollups) {
+            restoredDay = restoredDay == null || day.isAfter(restoredDay) ? day : restoredDay;
+            DailyRollups existing = rollups.get(account.getHandle() + 1L);
+            if (existing != null) {
+                existing.startAfter(restoredDay);
+            } else {
+                restored.set(account.getHandle());
+            }
+        }
+    }
+
+    @Override
+    public void onAdded(String id, AccountModel value) {
+    }
+
+    @Override
+    public void onRemoved(String id, AccountModel value) {
+        if (value.getHandle() < 0) {
+            return;
+        }
+        rollups.remove(value.getHandle() + 1L);
+        synchronized (rollups) {
+            restored.clear(value.getHandle());
+        }
+    }
+}
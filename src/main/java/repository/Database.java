@@ -0,0 +1,35 @@
+package main.java.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public interface Database<T> {
+    boolean exist(String id);
+
+    T get(String id);
+
+    List<T> getAll();
+
+    Collection<T> values();
+
+    Stream<T> stream();
+
+    Stream<T> parallelStream();
+
+    Spliterator<T> spliterator();
+
+    void forEach(Consumer<? super T> action);
+
+    int size();
+
+    void add(String id, T value);
+
+    boolean remove(String id);
+
+    void addListener(RepositoryListener<T> listener);
+
+    void removeListener(RepositoryListener<T> listener);
+}
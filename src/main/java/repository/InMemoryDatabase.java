@@ -1,30 +1,106 @@
 package main.java.repository;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-public class InMemoryDatabase<T> {
-    private Map<String, T> db = new HashMap<>();
+// Backed by a ConcurrentHashMap: reads never lock, writes only contend within the same bin, and every
+// iteration (values, stream, spliterator, forEach) is weakly consistent and works directly on the map
+// without copying it.
+public class InMemoryDatabase<T> implements Database<T> {
+    private final ConcurrentMap<String, T> db;
+    private final List<RepositoryListener<T>> listeners = new CopyOnWriteArrayList<>();
 
+    public InMemoryDatabase() {
+        this(16);
+    }
+
+    public InMemoryDatabase(int expectedSize) {
+        this.db = new ConcurrentHashMap<>(expectedSize);
+    }
+
+    @Override
     public boolean exist(String id) {
         return db.containsKey(id);
     }
 
+    @Override
     public T get(String id) {
         return db.get(id);
     }
 
+    // Copies every value; prefer values() or stream() for bulk jobs over large tables.
+    @Override
     public List<T> getAll() {
         return new ArrayList<>(db.values());
     }
 
+    @Override
+    public Collection<T> values() {
+        return Collections.unmodifiableCollection(db.values());
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return db.values().stream();
+    }
+
+    @Override
+    public Stream<T> parallelStream() {
+        return db.values().parallelStream();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return db.values().spliterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        db.values().forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return db.size();
+    }
+
+    @Override
     public void add(String id, T value) {
-        db.put(id, value);
+        T previous = db.put(id, value);
+        if (previous != null && previous != value) {
+            listeners.forEach(listener -> listener.onRemoved(id, previous));
+        }
+        if (previous != value) {
+            listeners.forEach(listener -> listener.onAdded(id, value));
+        }
     }
 
+    @Override
     public boolean remove(String id) {
-        return db.remove(id) != null;
+        T removed = db.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        listeners.forEach(listener -> listener.onRemoved(id, removed));
+        return true;
+    }
+
+    // Listeners are notified synchronously on the writing thread, after the map has been updated.
+    @Override
+    public void addListener(RepositoryListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(RepositoryListener<T> listener) {
+        listeners.remove(listener);
     }
 }
@@ -0,0 +1,87 @@
+package main.java.repository;
+
+import main.java.domain.AccountModel;
+import main.java.domain.CapitalizationFrequency;
+import main.java.domain.InterestScheduleListener;
+import main.java.domain.SavingsAccountModel;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Groups savings accounts by the month of their next capitalization (last interest date plus one or three
+// months), so a month-end run only has to visit the accounts that are due instead of the whole book.
+public class InterestDueIndex implements RepositoryListener<AccountModel>, InterestScheduleListener {
+    private final ConcurrentMap<YearMonth, Set<SavingsAccountModel>> dueAccounts = new ConcurrentHashMap<>();
+
+    public Set<SavingsAccountModel> getDueAccounts(YearMonth month) {
+        Set<SavingsAccountModel> accounts = dueAccounts.get(month);
+        return accounts == null ? Collections.emptySet() : Collections.unmodifiableSet(accounts);
+    }
+
+    public static YearMonth nextDueMonth(CapitalizationFrequency frequency, LocalDate lastInterestAppliedDate) {
+        if (frequency == null || lastInterestAppliedDate == null) {
+            return null;
+        }
+        YearMonth lastMonth = YearMonth.from(lastInterestAppliedDate);
+        return switch (frequency) {
+            case MONTHLY -> lastMonth.plusMonths(1);
+            case QUARTERLY -> lastMonth.plusMonths(3);
+        };
+    }
+
+    @Override
+    public void onAdded(String id, AccountModel value) {
+        if (value instanceof SavingsAccountModel savingsAccount) {
+            savingsAccount.setScheduleListener(this);
+            index(savingsAccount, nextDueMonth(savingsAccount.getInterestFrequency(), savingsAccount.getLastInterestAppliedDate()));
+        }
+    }
+
+    @Override
+    public void onRemoved(String id, AccountModel value) {
+        if (value instanceof SavingsAccountModel savingsAccount) {
+            if (savingsAccount.getScheduleListener() == this) {
+                savingsAccount.setScheduleListener(null);
+            }
+            unindex(savingsAccount, nextDueMonth(savingsAccount.getInterestFrequency(), savingsAccount.getLastInterestAppliedDate()));
+        }
+    }
+
+    @Override
+    public void onScheduleChanged(SavingsAccountModel account, CapitalizationFrequency previousFrequency, LocalDate previousLastInterestAppliedDate) {
+        YearMonth previousDueMonth = nextDueMonth(previousFrequency, previousLastInterestAppliedDate);
+        YearMonth dueMonth = nextDueMonth(account.getInterestFrequency(), account.getLastInterestAppliedDate());
+        if (previousDueMonth != null && previousDueMonth.equals(dueMonth)) {
+            return;
+        }
+        unindex(account, previousDueMonth);
+        index(account, dueMonth);
+    }
+
+    private void index(SavingsAccountModel account, YearMonth dueMonth) {
+        if (dueMonth == null) {
+            return;
+        }
+        dueAccounts.compute(dueMonth, (month, accounts) -> {
+            Set<SavingsAccountModel> bucket = accounts == null ? ConcurrentHashMap.newKeySet() : accounts;
+            bucket.add(account);
+            return bucket;
+        });
+    }
+
+    private void unindex(SavingsAccountModel account, YearMonth dueMonth) {
+        if (dueMonth == null) {
+            return;
+        }
+        // Buckets are created and dropped inside the map's own per-key compute, so an account can never be
+        // added to a bucket that is concurrently being discarded.
+        dueAccounts.computeIfPresent(dueMonth, (month, accounts) -> {
+            accounts.remove(account);
+            return accounts.isEmpty() ? null : accounts;
+        });
+    }
+}
@@ -0,0 +1,140 @@
+package main.java.repository;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Open-addressing hash map keyed by a primitive long, so lookups neither box the key nor chase entry objects.
+//
+// Writers are serialized on the map's monitor; readers take no lock. A slot's value is published before its key
+// (release/acquire), so a reader that finds the key also sees the value. Growing the table builds a complete new
+// one and publishes it through a volatile field, leaving the old one untouched for readers still probing it.
+// Removed entries leave a tombstone behind until the next rebuild. Key 0 marks an empty slot and cannot be used.
+public class LongKeyedMap<V> {
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final Object TOMBSTONE = new Object();
+    private static final long EMPTY = 0;
+
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private volatile Table table;
+    private int size;
+    private int occupied; // live entries plus tombstones
+
+    public LongKeyedMap() {
+        this(16);
+    }
+
+    public LongKeyedMap(int expectedSize) {
+        table = new Table(Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        Table current = table;
+        for (int i = indexOf(key, current.mask); ; i = (i + 1) & current.mask) {
+            long slotKey = (long) KEYS.getAcquire(current.keys, i);
+            if (slotKey == key) {
+                Object value = VALUES.getAcquire(current.values, i);
+                return value == TOMBSTONE ? null : (V) value;
+            }
+            if (slotKey == EMPTY) {
+                return null;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized V put(long key, V value) {
+        if (key == EMPTY || value == null) {
+            throw new IllegalArgumentException("Key 0 and null values are not supported.");
+        }
+        if ((occupied + 1) * 4 > table.keys.length * 3) {
+            rebuild(size + 1);
+        }
+        Table current = table;
+        int i = indexOf(key, current.mask);
+        while (current.keys[i] != EMPTY && current.keys[i] != key) {
+            i = (i + 1) & current.mask;
+        }
+
+        Object previous = current.values[i];
+        VALUES.setRelease(current.values, i, value);
+        if (current.keys[i] == EMPTY) {
+            KEYS.setRelease(current.keys, i, key);
+            occupied++;
+        }
+        if (previous == null || previous == TOMBSTONE) {
+            size++;
+            return null;
+        }
+        return (V) previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized V remove(long key) {
+        Table current = table;
+        for (int i = indexOf(key, current.mask); current.keys[i] != EMPTY; i = (i + 1) & current.mask) {
+            if (current.keys[i] == key) {
+                Object previous = current.values[i];
+                if (previous == TOMBSTONE) {
+                    return null;
+                }
+                VALUES.setRelease(current.values, i, TOMBSTONE);
+                size--;
+                return (V) previous;
+            }
+        }
+        return null;
+    }
+
+    // Removes the entry only while it still maps to the given value.
+    public synchronized boolean remove(long key, V value) {
+        V current = get(key);
+        if (current == null || !current.equals(value)) {
+            return false;
+        }
+        remove(key);
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void rebuild(int expectedSize) {
+        Table old = table;
+        Table rebuilt = new Table(Math.max(old.keys.length, Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1));
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.keys[i] != EMPTY && old.values[i] != TOMBSTONE) {
+                int j = indexOf(old.keys[i], rebuilt.mask);
+                while (rebuilt.keys[j] != EMPTY) {
+                    j = (j + 1) & rebuilt.mask;
+                }
+                rebuilt.keys[j] = old.keys[i];
+                rebuilt.values[j] = old.values[i];
+            }
+        }
+        occupied = size;
+        table = rebuilt;
+    }
+
+    private static int indexOf(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32) & mask;
+    }
+}
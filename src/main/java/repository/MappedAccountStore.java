@@ -0,0 +1,820 @@
+package main.java.repository;
+
+import main.java.domain.AccountIdDictionary;
+import main.java.domain.AccountModel;
+import main.java.domain.AccountType;
+import main.java.domain.CapitalizationFrequency;
+import main.java.domain.CardModel;
+import main.java.domain.CheckingAccountModel;
+import main.java.domain.CurrencyType;
+import main.java.domain.InterestScheduleListener;
+import main.java.domain.MoneyModel;
+import main.java.domain.SavingsAccountModel;
+import main.java.domain.TransactionHistory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Account store that keeps one fixed-width record per account in a memory-mapped file instead of an object
+// graph on the heap. The heap only holds an open-addressing int table from id hash to record slot (a few
+// bytes per account), plus the cards and transaction histories in use.
+//
+// get() and iteration hand out flyweight CheckingAccountModel/SavingsAccountModel views: a view holds its slot
+// and nothing else is read until asked for, so creating one neither decodes the id nor looks up its handle.
+// Balance, journal sequence, card and savings fields read and write the record directly, so the usual services
+// work on it unchanged. Views of the same account are equal to each other. An account passed to add() is copied
+// into its record; later changes must go through a view.
+//
+// A card is written to the record when it is attached (add or setAssociatedCard) and decoded once per run on
+// first use, so every view shares its CardModel and daily usage; changes made through the CardModel's own
+// setters are not written back. Transaction histories are not persisted: they live on the heap, one per slot
+// that has been asked for one, and start empty after reopening.
+//
+// Record layout (256 bytes): status, type, currency, frequency, schedule listener flag, id length, card flags
+// (present, contactless, active), card holder length (bytes 0-7), balance in minor units (8), journal sequence
+// (16), interest (24), last interest date as epoch day (32), UTF-8 id of at most 64 bytes (40), card number
+// (104), CVV (112), expiration and issue dates as epoch days (120, 128), daily withdrawal and transaction
+// limits (136, 144), UTF-8 card holder name of at most 64 bytes (152). The file is split into mappings of 1M
+// records each, so it can grow past the 2 GB limit of a single mapping. Removed records are only reused after
+// the store is reopened, so a view can never start pointing at a different account.
+public class MappedAccountStore implements Database<AccountModel>, Closeable {
+    private static final int MAGIC = 0x424d4153;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_HIGH_WATER = 8;
+    private static final int RECORD_SIZE = 256;
+    private static final int CHUNK_BITS = 20;
+    private static final int RECORDS_PER_CHUNK = 1 << CHUNK_BITS;
+    private static final int MAX_ID_BYTES = 64;
+    private static final int MAX_CARD_HOLDER_BYTES = 64;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final int STATUS = 0;
+    private static final int TYPE = 1;
+    private static final int CURRENCY = 2;
+    private static final int FREQUENCY = 3;
+    private static final int LISTENING = 4;
+    private static final int ID_LENGTH = 5;
+    private static final int CARD_FLAGS = 6;
+    private static final int CARD_HOLDER_LENGTH = 7;
+    private static final int BALANCE = 8;
+    private static final int JOURNAL_SEQUENCE = 16;
+    private static final int INTEREST = 24;
+    private static final int LAST_INTEREST_DATE = 32;
+    private static final int ID = 40;
+    private static final int CARD_NUMBER = 104;
+    private static final int CARD_CVV = 112;
+    private static final int CARD_EXPIRATION_DATE = 120;
+    private static final int CARD_ISSUE_DATE = 128;
+    private static final int CARD_WITHDRAWAL_LIMIT = 136;
+    private static final int CARD_TRANSACTION_LIMIT = 144;
+    private static final int CARD_HOLDER = 152;
+
+    private static final int CARD_PRESENT = 1;
+    private static final int CARD_CONTACTLESS = 2;
+    private static final int CARD_ACTIVE = 4;
+
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<RepositoryListener<AccountModel>> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentMap<Integer, CardModel> cards = new ConcurrentHashMap<>(); // decoded cards by slot
+    private final ConcurrentMap<Integer, TransactionHistory> histories = new ConcurrentHashMap<>();
+    private final int[] reusableSlots;
+    private int reusableCount;
+    private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+    private volatile int highWater;
+    private volatile int[] table = new int[1024];
+    private int tableUsed;
+    private volatile int count;
+    private volatile InterestScheduleListener scheduleListener;
+
+    private MappedAccountStore(FileChannel channel, MappedByteBuffer header, int highWater) throws IOException {
+        this.channel = channel;
+        this.header = header;
+        this.highWater = highWater;
+        ensureMapped(highWater);
+
+        List<Integer> free = new ArrayList<>();
+        for (int slot = 0; slot < highWater; slot++) {
+            if (chunk(slot).get(offset(slot) + STATUS) == USED) {
+                insert(slot, hash(readId(slot)));
+                count++;
+            } else {
+                free.add(slot);
+            }
+        }
+        reusableSlots = new int[free.size()];
+        for (int i = free.size() - 1; i >= 0; i--) {
+            reusableSlots[reusableCount++] = free.get(i);
+        }
+    }
+
+    public static MappedAccountStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (header.getInt(0) == 0) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(HEADER_HIGH_WATER, 0);
+        } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Unsupported account store file: " + file);
+        }
+        return new MappedAccountStore(channel, header, header.getInt(HEADER_HIGH_WATER));
+    }
+
+    @Override
+    public boolean exist(String id) {
+        return find(id) >= 0;
+    }
+
+    @Override
+    public AccountModel get(String id) {
+        int slot = find(id);
+        return slot < 0 ? null : view(slot);
+    }
+
+    @Override
+    public List<AccountModel> getAll() {
+        List<AccountModel> accounts = new ArrayList<>(count);
+        forEach(accounts::add);
+        return accounts;
+    }
+
+    @Override
+    public Collection<AccountModel> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<AccountModel> iterator() {
+                return Spliterators.iterator(spliterator());
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public Stream<AccountModel> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public Stream<AccountModel> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    @Override
+    public Spliterator<AccountModel> spliterator() {
+        return new SlotSpliterator(0, highWater);
+    }
+
+    @Override
+    public void forEach(Consumer<? super AccountModel> action) {
+        spliterator().forEachRemaining(action);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public void add(String id, AccountModel value) {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        if (idBytes.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Account ids are limited to " + MAX_ID_BYTES + " bytes in a mapped store.");
+        }
+        if (value instanceof CheckingAccountModel checkingAccount) {
+            cardHolderBytes(checkingAccount.getAssociatedCard());
+        }
+
+        // Listeners see the replaced account before its record is overwritten, so they can still read its old state.
+        AccountModel previous;
+        synchronized (this) {
+            int slot = find(id);
+            previous = slot < 0 ? null : view(slot);
+        }
+        if (previous != null) {
+            listeners.forEach(listener -> listener.onRemoved(id, previous));
+        }
+
+        AccountModel added;
+        synchronized (this) {
+            int slot = find(id);
+            if (slot < 0) {
+                slot = allocateSlot();
+                insert(slot, hash(idBytes));
+                count++;
+            }
+            write(slot, idBytes, value);
+            added = view(slot);
+        }
+        listeners.forEach(listener -> listener.onAdded(id, added));
+    }
+
+    @Override
+    public boolean remove(String id) {
+        AccountModel removed;
+        synchronized (this) {
+            int slot = find(id);
+            if (slot < 0) {
+                return false;
+            }
+            removed = view(slot);
+            int[] current = table;
+            for (int i = index(hash(readId(slot)), current.length); ; i = (i + 1) & (current.length - 1)) {
+                if (current[i] == slot + 1) {
+                    current[i] = DELETED;
+                    break;
+                }
+            }
+            count--;
+        }
+
+        listeners.forEach(listener -> listener.onRemoved(id, removed));
+        synchronized (this) {
+            int slot = ((Slotted) removed).slot();
+            chunk(slot).put(offset(slot) + STATUS, FREE);
+            cards.remove(slot);
+            histories.remove(slot);
+        }
+        return true;
+    }
+
+    @Override
+    public void addListener(RepositoryListener<AccountModel> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(RepositoryListener<AccountModel> listener) {
+        listeners.remove(listener);
+    }
+
+    public void force() {
+        header.force();
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    // Record slot of a view handed out by this store, or -1 for any other account.
+    int slotOf(AccountModel account) {
+        return account instanceof Slotted slotted ? slotted.slot() : -1;
+    }
+
+    // A view of the account in the slot, or null if the slot holds none. Slots are not reused before the store
+    // is reopened, so a slot that is still in use holds the account it was recorded for.
+    AccountModel viewIfUsed(int slot) {
+        if (slot < 0 || slot >= highWater || chunk(slot).get(offset(slot) + STATUS) != USED) {
+            return null;
+        }
+        return view(slot);
+    }
+
+    private int find(String id) {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        int[] current = table;
+        int mask = current.length - 1;
+        for (int i = index(hash(idBytes), current.length); ; i = (i + 1) & mask) {
+            int entry = current[i];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry > 0 && idEquals(entry - 1, idBytes)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    // Only called while holding the monitor. Readers keep using whichever table they started with; a resized
+    // table is fully built before it is published.
+    private void insert(int slot, int hash) {
+        if ((tableUsed + 1) * 2 > table.length) {
+            int[] resized = new int[count * 4 > table.length ? table.length * 2 : table.length];
+            int used = 0;
+            for (int entry : table) {
+                if (entry > 0) {
+                    place(resized, entry, hash(readId(entry - 1)));
+                    used++;
+                }
+            }
+            tableUsed = used;
+            table = resized;
+        }
+        place(table, slot + 1, hash);
+        tableUsed++;
+    }
+
+    private static void place(int[] target, int entry, int hash) {
+        int mask = target.length - 1;
+        int i = index(hash, target.length);
+        while (target[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        target[i] = entry;
+    }
+
+    private int allocateSlot() {
+        if (reusableCount > 0) {
+            return reusableSlots[--reusableCount];
+        }
+        int slot = highWater;
+        ensureMapped(slot + 1);
+        highWater = slot + 1;
+        header.putInt(HEADER_HIGH_WATER, slot + 1);
+        return slot;
+    }
+
+    private void ensureMapped(int slots) {
+        int needed = (slots + RECORDS_PER_CHUNK - 1) >>> CHUNK_BITS;
+        MappedByteBuffer[] current = chunks;
+        if (needed <= current.length) {
+            return;
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(current, needed);
+        try {
+            for (int i = current.length; i < needed; i++) {
+                long position = HEADER_SIZE + (long) i * RECORDS_PER_CHUNK * RECORD_SIZE;
+                grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) RECORDS_PER_CHUNK * RECORD_SIZE);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("The account store could not be extended.", e);
+        }
+        chunks = grown;
+    }
+
+    private void write(int slot, byte[] idBytes, AccountModel account) {
+        MappedByteBuffer chunk = chunk(slot);
+        int offset = offset(slot);
+        chunk.put(offset + TYPE, (byte) account.getAccountType().ordinal());
+        chunk.put(offset + CURRENCY, (byte) account.getBalance().getCurrency().ordinal());
+        chunk.put(offset + LISTENING, (byte) 0);
+        chunk.put(offset + ID_LENGTH, (byte) idBytes.length);
+        chunk.putLong(offset + BALANCE, account.getBalance().getMinorUnits());
+        chunk.putLong(offset + JOURNAL_SEQUENCE, account.getJournalSequence());
+        chunk.put(offset + ID, idBytes);
+
+        if (account instanceof SavingsAccountModel savingsAccount) {
+            CapitalizationFrequency frequency = savingsAccount.getInterestFrequency();
+            LocalDate lastInterestAppliedDate = savingsAccount.getLastInterestAppliedDate();
+            chunk.put(offset + FREQUENCY, (byte) (frequency == null ? -1 : frequency.ordinal()));
+            chunk.putDouble(offset + INTEREST, savingsAccount.getInterest());
+            chunk.putLong(offset + LAST_INTEREST_DATE, lastInterestAppliedDate == null ? NO_DATE : lastInterestAppliedDate.toEpochDay());
+        } else {
+            chunk.put(offset + FREQUENCY, (byte) -1);
+            chunk.putDouble(offset + INTEREST, 0);
+            chunk.putLong(offset + LAST_INTEREST_DATE, NO_DATE);
+        }
+        chunk.put(offset + STATUS, USED);
+
+        writeCard(slot, account instanceof CheckingAccountModel checkingAccount ? checkingAccount.getAssociatedCard() : null);
+        if (account.getHistory().isEmpty()) {
+            histories.remove(slot);
+        } else {
+            histories.put(slot, account.getHistory());
+        }
+    }
+
+    // The record stays the single source of the card fields; the decoded CardModel is only cached for the run.
+    private void writeCard(int slot, CardModel card) {
+        MappedByteBuffer chunk = chunk(slot);
+        int offset = offset(slot);
+        if (card == null) {
+            chunk.put(offset + CARD_FLAGS, (byte) 0);
+            cards.remove(slot);
+            return;
+        }
+        byte[] holderBytes = cardHolderBytes(card);
+        chunk.putLong(offset + CARD_NUMBER, card.getCardNumber());
+        chunk.putInt(offset + CARD_CVV, card.getCvv());
+        chunk.putLong(offset + CARD_EXPIRATION_DATE, card.getExpirationDate() == null ? NO_DATE : card.getExpirationDate().toEpochDay());
+        chunk.putLong(offset + CARD_ISSUE_DATE, card.getIssueDate() == null ? NO_DATE : card.getIssueDate().toEpochDay());
+        chunk.putDouble(offset + CARD_WITHDRAWAL_LIMIT, card.getDailyWithdrawalLimit());
+        chunk.putDouble(offset + CARD_TRANSACTION_LIMIT, card.getDailyTransactionLimit());
+        chunk.put(offset + CARD_HOLDER_LENGTH, (byte) holderBytes.length);
+        chunk.put(offset + CARD_HOLDER, holderBytes);
+        chunk.put(offset + CARD_FLAGS, (byte) (CARD_PRESENT | (card.isContactless() ? CARD_CONTACTLESS : 0) | (card.isActive() ? CARD_ACTIVE : 0)));
+        cards.put(slot, card);
+    }
+
+    private CardModel readCard(int slot) {
+        MappedByteBuffer chunk = chunk(slot);
+        int offset = offset(slot);
+        byte flags = chunk.get(offset + CARD_FLAGS);
+        if ((flags & CARD_PRESENT) == 0) {
+            return null;
+        }
+        CardModel cached = cards.get(slot);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] holderBytes = new byte[chunk.get(offset + CARD_HOLDER_LENGTH)];
+        chunk.get(offset + CARD_HOLDER, holderBytes);
+        CardModel card = new CardModel(chunk.getLong(offset + CARD_NUMBER), new String(holderBytes, StandardCharsets.UTF_8),
+                chunk.getInt(offset + CARD_CVV), readDate(chunk, offset + CARD_EXPIRATION_DATE), readDate(chunk, offset + CARD_ISSUE_DATE),
+                (flags & CARD_CONTACTLESS) != 0, (flags & CARD_ACTIVE) != 0,
+                chunk.getDouble(offset + CARD_WITHDRAWAL_LIMIT), chunk.getDouble(offset + CARD_TRANSACTION_LIMIT));
+        CardModel raced = cards.putIfAbsent(slot, card);
+        return raced != null ? raced : card;
+    }
+
+    private static byte[] cardHolderBytes(CardModel card) {
+        if (card == null || card.getCardHolderName() == null) {
+            return new byte[0];
+        }
+        byte[] holderBytes = card.getCardHolderName().getBytes(StandardCharsets.UTF_8);
+        if (holderBytes.length > MAX_CARD_HOLDER_BYTES) {
+            throw new IllegalArgumentException("Card holder names are limited to " + MAX_CARD_HOLDER_BYTES + " bytes in a mapped store.");
+        }
+        return holderBytes;
+    }
+
+    private static LocalDate readDate(MappedByteBuffer chunk, int position) {
+        long epochDay = chunk.getLong(position);
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private AccountModel view(int slot) {
+        return chunk(slot).get(offset(slot) + TYPE) == AccountType.SAVINGS.ordinal()
+                ? new MappedSavingsAccount(slot)
+                : new MappedCheckingAccount(slot);
+    }
+
+    private MappedByteBuffer chunk(int slot) {
+        return chunks[slot >>> CHUNK_BITS];
+    }
+
+    private static int offset(int slot) {
+        return (slot & (RECORDS_PER_CHUNK - 1)) * RECORD_SIZE;
+    }
+
+    private String readId(int slot) {
+        MappedByteBuffer chunk = chunk(slot);
+        int offset = offset(slot);
+        byte[] idBytes = new byte[chunk.get(offset + ID_LENGTH)];
+        chunk.get(offset + ID, idBytes);
+        return new String(idBytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean idEquals(int slot, byte[] idBytes) {
+        MappedByteBuffer chunk = chunk(slot);
+        int offset = offset(slot);
+        if (chunk.get(offset + ID_LENGTH) != idBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < idBytes.length; i++) {
+            if (chunk.get(offset + ID + i) != idBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(String id) {
+        return hash(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int hash(byte[] idBytes) {
+        int hash = 1;
+        for (byte b : idBytes) {
+            hash = 31 * hash + b;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int index(int hash, int length) {
+        return (hash * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(length));
+    }
+
+    private interface Slotted {
+        int slot();
+    }
+
+    private class SlotSpliterator implements Spliterator<AccountModel> {
+        private int origin;
+        private final int fence;
+
+        SlotSpliterator(int origin, int fence) {
+            this.origin = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super AccountModel> action) {
+            while (origin < fence) {
+                int slot = origin++;
+                if (chunk(slot).get(offset(slot) + STATUS) == USED) {
+                    action.accept(view(slot));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<AccountModel> trySplit() {
+            int middle = (origin + fence) >>> 1;
+            if (middle - origin < 1024) {
+                return null;
+            }
+            SlotSpliterator prefix = new SlotSpliterator(origin, middle);
+            origin = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - origin;
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL | CONCURRENT;
+        }
+    }
+
+    private class MappedBalance extends MoneyModel {
+        private final int slot;
+
+        MappedBalance(int slot) {
+            super(0, CurrencyType.RON);
+            this.slot = slot;
+        }
+
+        @Override
+        public long getMinorUnits() {
+            return chunk(slot).getLong(offset(slot) + BALANCE);
+        }
+
+        @Override
+        public void setMinorUnits(long minorUnits) {
+            chunk(slot).putLong(offset(slot) + BALANCE, minorUnits);
+        }
+
+        @Override
+        public CurrencyType getCurrency() {
+            return CurrencyType.values()[chunk(slot).get(offset(slot) + CURRENCY)];
+        }
+
+        @Override
+        public void setCurrency(CurrencyType currency) {
+            chunk(slot).put(offset(slot) + CURRENCY, (byte) currency.ordinal());
+        }
+    }
+
+    private class MappedCheckingAccount extends CheckingAccountModel implements Slotted {
+        private final int slot;
+
+        private String id;
+
+        MappedCheckingAccount(int slot) {
+            super(null, new MappedBalance(slot), null, null);
+            this.slot = slot;
+        }
+
+        @Override
+        public int slot() {
+            return slot;
+        }
+
+        @Override
+        public String getId() {
+            if (id == null) {
+                id = readId(slot);
+            }
+            return id;
+        }
+
+        // Looked up by id the first time it is needed, unless the handle index has already set it.
+        @Override
+        public int getHandle() {
+            int handle = super.getHandle();
+            if (handle < 0) {
+                handle = AccountIdDictionary.INSTANCE.find(getId());
+                setHandle(handle);
+            }
+            return handle;
+        }
+
+        @Override
+        public CardModel getAssociatedCard() {
+            return readCard(slot);
+        }
+
+        @Override
+        public void setAssociatedCard(CardModel associatedCard) {
+            writeCard(slot, associatedCard);
+        }
+
+        @Override
+        public TransactionHistory getHistory() {
+            return histories.computeIfAbsent(slot, key -> new TransactionHistory());
+        }
+
+        @Override
+        public void setHistory(TransactionHistory history) {
+            histories.put(slot, history);
+        }
+
+        @Override
+        public void setBalance(MoneyModel balance) {
+            getBalance().setCurrency(balance.getCurrency());
+            getBalance().setMinorUnits(balance.getMinorUnits());
+        }
+
+        @Override
+        public void setId(String id) {
+            throw new UnsupportedOperationException("The id of a mapped account cannot be changed.");
+        }
+
+        @Override
+        public long getJournalSequence() {
+            return chunk(slot).getLong(offset(slot) + JOURNAL_SEQUENCE);
+        }
+
+        @Override
+        public void setJournalSequence(long journalSequence) {
+            chunk(slot).putLong(offset(slot) + JOURNAL_SEQUENCE, journalSequence);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof MappedCheckingAccount account && account.slot == slot && account.store() == store();
+        }
+
+        @Override
+        public int hashCode() {
+            return slot;
+        }
+
+        private MappedAccountStore store() {
+            return MappedAccountStore.this;
+        }
+    }
+
+    private class MappedSavingsAccount extends SavingsAccountModel implements Slotted {
+        private final int slot;
+
+        private String id;
+
+        MappedSavingsAccount(int slot) {
+            super(null, new MappedBalance(slot), null, 0, null, null);
+            this.slot = slot;
+        }
+
+        @Override
+        public int slot() {
+            return slot;
+        }
+
+        @Override
+        public String getId() {
+            if (id == null) {
+                id = readId(slot);
+            }
+            return id;
+        }
+
+        // Looked up by id the first time it is needed, unless the handle index has already set it.
+        @Override
+        public int getHandle() {
+            int handle = super.getHandle();
+            if (handle < 0) {
+                handle = AccountIdDictionary.INSTANCE.find(getId());
+                setHandle(handle);
+            }
+            return handle;
+        }
+
+        @Override
+        public double getInterest() {
+            return chunk(slot).getDouble(offset(slot) + INTEREST);
+        }
+
+        @Override
+        public void setInterest(double interest) {
+            chunk(slot).putDouble(offset(slot) + INTEREST, interest);
+        }
+
+        @Override
+        public CapitalizationFrequency getInterestFrequency() {
+            byte frequency = chunk(slot).get(offset(slot) + FREQUENCY);
+            return frequency < 0 ? null : CapitalizationFrequency.values()[frequency];
+        }
+
+        @Override
+        public void setInterestFrequency(CapitalizationFrequency interestFrequency) {
+            CapitalizationFrequency previousFrequency = getInterestFrequency();
+            chunk(slot).put(offset(slot) + FREQUENCY, (byte) (interestFrequency == null ? -1 : interestFrequency.ordinal()));
+            notifyScheduleChanged(previousFrequency, getLastInterestAppliedDate());
+        }
+
+        @Override
+        public LocalDate getLastInterestAppliedDate() {
+            long epochDay = chunk(slot).getLong(offset(slot) + LAST_INTEREST_DATE);
+            return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+        }
+
+        @Override
+        public void setLastInterestAppliedDate(LocalDate lastInterestAppliedDate) {
+            LocalDate previousLastInterestAppliedDate = getLastInterestAppliedDate();
+            chunk(slot).putLong(offset(slot) + LAST_INTEREST_DATE, lastInterestAppliedDate == null ? NO_DATE : lastInterestAppliedDate.toEpochDay());
+            notifyScheduleChanged(getInterestFrequency(), previousLastInterestAppliedDate);
+        }
+
+        // Every savings account in a store shares one schedule listener (in practice the interest due index);
+        // the record only remembers whether it is attached, so views created later still notify it.
+        @Override
+        public InterestScheduleListener getScheduleListener() {
+            return chunk(slot).get(offset(slot) + LISTENING) == 0 ? null : scheduleListener;
+        }
+
+        @Override
+        public void setScheduleListener(InterestScheduleListener listener) {
+            if (listener != null) {
+                scheduleListener = listener;
+            }
+            chunk(slot).put(offset(slot) + LISTENING, (byte) (listener == null ? 0 : 1));
+        }
+
+        @Override
+        public TransactionHistory getHistory() {
+            return histories.computeIfAbsent(slot, key -> new TransactionHistory());
+        }
+
+        @Override
+        public void setHistory(TransactionHistory history) {
+            histories.put(slot, history);
+        }
+
+        @Override
+        public void setBalance(MoneyModel balance) {
+            getBalance().setCurrency(balance.getCurrency());
+            getBalance().setMinorUnits(balance.getMinorUnits());
+        }
+
+        @Override
+        public void setId(String id) {
+            throw new UnsupportedOperationException("The id of a mapped account cannot be changed.");
+        }
+
+        @Override
+        public long getJournalSequence() {
+            return chunk(slot).getLong(offset(slot) + JOURNAL_SEQUENCE);
+        }
+
+        @Override
+        public void setJournalSequence(long journalSequence) {
+            chunk(slot).putLong(offset(slot) + JOURNAL_SEQUENCE, journalSequence);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof MappedSavingsAccount account && account.slot == slot && account.store() == store();
+        }
+
+        @Override
+        public int hashCode() {
+            return slot;
+        }
+
+        private MappedAccountStore store() {
+            return MappedAccountStore.this;
+        }
+    }
+}
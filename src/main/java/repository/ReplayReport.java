@@ -0,0 +1,39 @@
+package main.java.repository;
+
+public class ReplayReport {
+    private final long entriesReplayed;
+    private final long bytesRead;
+    private final long durationNanos;
+
+    public ReplayReport(long entriesReplayed, long bytesRead, long durationNanos) {
+        this.entriesReplayed = entriesReplayed;
+        this.bytesRead = bytesRead;
+        this.durationNanos = durationNanos;
+    }
+
+    public long getEntriesReplayed() {
+        return entriesReplayed;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public double getEntriesPerSecond() {
+        return durationNanos == 0 ? 0 : entriesReplayed * 1_000_000_000.0 / durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayReport{" +
+                "entriesReplayed=" + entriesReplayed +
+                ", bytesRead=" + bytesRead +
+                ", durationMillis=" + durationNanos / 1_000_000.0 +
+                ", entriesPerSecond=" + Math.round(getEntriesPerSecond()) +
+                '}';
+    }
+}
@@ -0,0 +1,7 @@
+package main.java.repository;
+
+public interface RepositoryListener<T> {
+    void onAdded(String id, T value);
+
+    void onRemoved(String id, T value);
+}
@@ -0,0 +1,42 @@
+package main.java.repository;
+
+public class SnapshotReport {
+    private final int segment;
+    private final long accounts;
+    private final long bytes;
+    private final long durationNanos;
+
+    public SnapshotReport(int segment, long accounts, long bytes, long durationNanos) {
+        this.segment = segment;
+        this.accounts = accounts;
+        this.bytes = bytes;
+        this.durationNanos = durationNanos;
+    }
+
+    // The first journal segment that is not covered by the snapshot.
+    public int getSegment() {
+        return segment;
+    }
+
+    public long getAccounts() {
+        return accounts;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotReport{" +
+                "segment=" + segment +
+                ", accounts=" + accounts +
+                ", bytes=" + bytes +
+                ", durationMillis=" + durationNanos / 1_000_000.0 +
+                '}';
+    }
+}
@@ -0,0 +1,149 @@
+package main.java.repository;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.TransactionArchive;
+import main.java.domain.TransactionBlock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// File of transaction history blocks spilled out of the accounts' in-memory tails.
+//
+// Each block is written once at the end of the file as int length, int count and then the block's columns one
+// after the other (transaction id high and low bits, from handle, to handle, minor units, currency, epoch day,
+// rate version), count values each; its location is the file offset. The account handles are only valid within
+// this process, like the file itself. Reads are positional, so any number of threads can page through history
+// while blocks are being appended.
+//
+// The file only offloads history from the heap; it is not a recovery mechanism (that is the journal's job)
+// and is started empty every time it is opened.
+public class TransactionHistoryStore implements TransactionArchive, Closeable {
+    private static final int HEADER_SIZE = 8;
+    // id (two longs), from and to handles, minor units, currency, epoch day, rate version
+    private static final int ENTRY_SIZE = 8 + 8 + 4 + 4 + 8 + 1 + 4 + 8;
+    private static final CurrencyType[] CURRENCIES = CurrencyType.values();
+
+    private final FileChannel channel;
+    private long end;
+
+    private TransactionHistoryStore(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public static TransactionHistoryStore open(Path file) throws IOException {
+        return new TransactionHistoryStore(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    // A store in a temporary file that is removed when the JVM exits.
+    public static TransactionHistoryStore openTemporary() throws IOException {
+        Path file = Files.createTempFile("banking-history", ".dat");
+        file.toFile().deleteOnExit();
+        return open(file);
+    }
+
+    @Override
+    public long write(TransactionBlock block) {
+        int count = block.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + count * ENTRY_SIZE);
+        buffer.putInt(count * ENTRY_SIZE);
+        buffer.putInt(count);
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(block.getIdHigh(i));
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(block.getIdLow(i));
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(block.getFromHandle(i));
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(block.getToHandle(i));
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(block.getMinorUnits(i));
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.put((byte) block.getCurrency(i).ordinal());
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(block.getEpochDay(i));
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.putLong(block.getRateVersion(i));
+        }
+        buffer.flip();
+
+        long location;
+        synchronized (this) {
+            location = end;
+            end += buffer.capacity();
+        }
+        try {
+            long position = location;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("A transaction history block could not be written.", e);
+        }
+        return location;
+    }
+
+    @Override
+    public TransactionBlock read(long location) {
+        try {
+            ByteBuffer header = readFully(ByteBuffer.allocate(HEADER_SIZE), location);
+            int length = header.getInt();
+            int count = header.getInt();
+            ByteBuffer payload = readFully(ByteBuffer.allocate(length), location + HEADER_SIZE);
+
+            // Column offsets, in the order write lays them out.
+            int idLow = count * 8;
+            int from = idLow + count * 8;
+            int to = from + count * 4;
+            int minorUnits = to + count * 4;
+            int currency = minorUnits + count * 8;
+            int epochDay = currency + count;
+            int rateVersion = epochDay + count * 4;
+            TransactionBlock block = new TransactionBlock(Math.max(count, 1));
+            for (int i = 0; i < count; i++) {
+                block.append(payload.getLong(i * 8),
+                        payload.getLong(idLow + i * 8),
+                        payload.getInt(from + i * 4),
+                        payload.getInt(to + i * 4),
+                        payload.getLong(minorUnits + i * 8),
+                        CURRENCIES[payload.get(currency + i)],
+                        payload.getInt(epochDay + i * 4),
+                        payload.getLong(rateVersion + i * 8));
+            }
+            return block;
+        } catch (IOException e) {
+            throw new UncheckedIOException("A transaction history block could not be read.", e);
+        }
+    }
+
+    public synchronized long getSize() {
+        return end;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the transaction history file");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,472 @@
+package main.java.repository;
+
+import main.java.domain.AccountModel;
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.SavingsAccountModel;
+import main.java.domain.TransactionModel;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only binary log of every committed transfer, withdrawal and interest posting, kept as a series of
+// segment files (journal-000001.log, journal-000002.log, ...) in one directory.
+//
+// Record layout: int payloadLength, int crc32(payload), payload. The payload holds the sequence number, the
+// entry kind, the transaction id, the epoch day, the debited amount (in the source currency), the credited
+// amount (in the target currency), both account ids and the exchange rate version. Records written before the
+// rate version existed end after the account ids and replay with version 0. A record that is cut short or fails its checksum
+// marks the end of a segment and is truncated away when the journal is reopened.
+//
+// Sequence numbers are reserved while the affected accounts are locked and stamped on them, so the order of
+// records in the file does not matter: replay applies an entry to an account only if it is newer than the
+// account's journal sequence, which is what lets a snapshot be taken while transfers keep running.
+//
+// Records are encoded into a shared pending buffer while the affected accounts are still locked, so a record is
+// always buffered, and therefore made durable, no later than every record it depends on: a debit can never
+// reach the disk without the credit that funded it. Flushes write the buffer in order, so what is durable is
+// always a prefix of what was appended.
+//
+// Durability uses group commit: callers wait for their ticket after releasing the account locks. Whichever
+// caller finds no flush in progress writes and forces everything pending at once, so a single fsync covers
+// every transaction that arrived while the previous one was running.
+public class TransactionJournal implements Closeable {
+    private static final byte TRANSFER = 1;
+    private static final byte WITHDRAWAL = 2;
+    private static final byte INTEREST = 3;
+    private static final int HEADER_SIZE = 8;
+    private static final int FIXED_PAYLOAD_SIZE = 8 + 1 + 16 + 8 + 8 + 1 + 8 + 1 + 2 + 2;
+    private static final int RATE_VERSION_SIZE = 8;
+    private static final int MAX_PAYLOAD_SIZE = 64 * 1024;
+    private static final UUID NO_TRANSACTION = new UUID(0, 0);
+
+    private final Path directory;
+    private final AtomicLong lastSequence;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private int segment;
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long appendedCount;
+    private long durableCount;
+    private long flushCount;
+    private boolean flushInProgress;
+    private IOException failure;
+
+    private TransactionJournal(Path directory, int segment, FileChannel channel, long lastSequence) {
+        this.directory = directory;
+        this.segment = segment;
+        this.channel = channel;
+        this.lastSequence = new AtomicLong(lastSequence);
+    }
+
+    public static TransactionJournal open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<Integer> segments = listSegments(directory);
+
+        long lastSequence = 0;
+        Scan lastScan = null;
+        for (int segment : segments) {
+            lastScan = scan(segmentFile(directory, segment), null);
+            lastSequence = Math.max(lastSequence, lastScan.lastSequence);
+        }
+
+        int segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        FileChannel channel = FileChannel.open(segmentFile(directory, segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validLength = lastScan == null ? 0 : lastScan.validLength;
+        channel.truncate(validLength);
+        channel.position(validLength);
+        return new TransactionJournal(directory, segment, channel, lastSequence);
+    }
+
+    // Applies every journaled entry that is newer than the affected account's journal sequence, on top of
+    // whatever state the accounts were seeded or restored from a snapshot with. Replaying into the repository
+    // also rebuilds the daily rollups of the replayed transfers and withdrawals.
+    public static ReplayReport replay(Path directory, Database<AccountModel> accounts) throws IOException {
+        long start = System.nanoTime();
+        long entries = 0;
+        long bytes = 0;
+        Replay replay = new Replay(accounts);
+        if (Files.isDirectory(directory)) {
+            for (int segment : listSegments(directory)) {
+                Scan scan = scan(segmentFile(directory, segment), replay);
+                entries += scan.entries;
+                bytes += scan.validLength;
+            }
+        }
+        replay.finish();
+        return new ReplayReport(entries, bytes, System.nanoTime() - start);
+    }
+
+    // Must be called while every account that the entry will touch is locked.
+    public long reserveSequence() {
+        return lastSequence.incrementAndGet();
+    }
+
+    // The append methods must be called while every account that the entry touches is still locked. They only
+    // buffer the record and return a ticket; the entry is durable once awaitDurable(ticket) or sync() returns.
+    public long appendTransfer(long sequence, TransactionModel transaction, long debitedMinorUnits, CurrencyType debitCurrency) {
+        return append(sequence, TRANSFER, transaction.getId(), transaction.getFrom(), transaction.getTo(), transaction.getTimestamp(),
+                debitedMinorUnits, debitCurrency, transaction.getAmount().getMinorUnits(), transaction.getAmount().getCurrency(),
+                transaction.getRateVersion());
+    }
+
+    public long appendWithdrawal(long sequence, TransactionModel transaction) {
+        MoneyModel amount = transaction.getAmount();
+        return append(sequence, WITHDRAWAL, transaction.getId(), transaction.getFrom(), transaction.getTo(), transaction.getTimestamp(),
+                amount.getMinorUnits(), amount.getCurrency(), amount.getMinorUnits(), amount.getCurrency(), transaction.getRateVersion());
+    }
+
+    public long appendInterest(long sequence, String accountId, long creditedMinorUnits, CurrencyType currency, LocalDate interestDate) {
+        return append(sequence, INTEREST, NO_TRANSACTION, accountId, accountId, interestDate, 0, currency, creditedMinorUnits, currency, 0);
+    }
+
+    // Blocks until the entry with the given ticket, and every entry appended before it, has been forced to disk.
+    // Must not be called while holding account locks.
+    public void awaitDurable(long ticket) {
+        lock.lock();
+        try {
+            flushUntil(ticket);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void sync() {
+        lock.lock();
+        try {
+            flushUntil(appendedCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Makes everything appended so far durable in the current segment and starts a new one. Every entry in
+    // an older segment belongs to a mutation that happened before this call returned.
+    public int rollSegment() throws IOException {
+        lock.lock();
+        try {
+            flushUntil(appendedCount);
+            while (flushInProgress) {
+                flushed.awaitUninterruptibly();
+            }
+            channel.close();
+            segment++;
+            channel = FileChannel.open(segmentFile(directory, segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void deleteSegmentsBefore(int segment) throws IOException {
+        for (int existing : listSegments(directory)) {
+            if (existing < segment) {
+                Files.deleteIfExists(segmentFile(directory, existing));
+            }
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getFlushCount() {
+        lock.lock();
+        try {
+            return flushCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAppendedCount() {
+        lock.lock();
+        try {
+            return appendedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long append(long sequence, byte kind, UUID id, String fromAccountId, String toAccountId, LocalDate date,
+                        long debitedMinorUnits, CurrencyType debitCurrency, long creditedMinorUnits, CurrencyType creditCurrency,
+                        long rateVersion) {
+        byte[] from = fromAccountId.getBytes(StandardCharsets.UTF_8);
+        byte[] to = toAccountId.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = FIXED_PAYLOAD_SIZE + from.length + to.length + RATE_VERSION_SIZE;
+
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new RuntimeException("The transaction journal is no longer writable.", failure);
+            }
+            ensureCapacity(HEADER_SIZE + payloadLength);
+            int start = pending.position();
+            pending.putInt(payloadLength).putInt(0)
+                    .putLong(sequence)
+                    .put(kind)
+                    .putLong(id.getMostSignificantBits())
+                    .putLong(id.getLeastSignificantBits())
+                    .putLong(date.toEpochDay())
+                    .putLong(debitedMinorUnits)
+                    .put((byte) debitCurrency.ordinal())
+                    .putLong(creditedMinorUnits)
+                    .put((byte) creditCurrency.ordinal())
+                    .putShort((short) from.length).put(from)
+                    .putShort((short) to.length).put(to)
+                    .putLong(rateVersion);
+            crc.reset();
+            crc.update(pending.array(), start + HEADER_SIZE, payloadLength);
+            pending.putInt(start + 4, (int) crc.getValue());
+
+            return ++appendedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called while holding the journal lock.
+    private void flushUntil(long ticket) {
+        while (durableCount < ticket) {
+            if (failure != null) {
+                throw new RuntimeException("The transaction could not be written to the journal.", failure);
+            }
+            if (flushInProgress) {
+                flushed.awaitUninterruptibly();
+                continue;
+            }
+
+            flushInProgress = true;
+            long target = appendedCount;
+            FileChannel batchChannel = channel;
+            ByteBuffer batch = pending;
+            pending = spare;
+            pending.clear();
+
+            // The lock is released for the write and the fsync so other callers can keep filling the next batch.
+            IOException error = null;
+            lock.unlock();
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    batchChannel.write(batch);
+                }
+                batchChannel.force(false);
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                lock.lock();
+            }
+
+            spare = batch;
+            flushInProgress = false;
+            flushCount++;
+            if (error != null) {
+                failure = error;
+            } else {
+                durableCount = target;
+            }
+            flushed.signalAll();
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (failure == null) {
+                flushUntil(appendedCount);
+            }
+            while (flushInProgress) {
+                flushed.awaitUninterruptibly();
+            }
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Path segmentFile(Path directory, int segment) {
+        return directory.resolve(String.format("journal-%06d.log", segment));
+    }
+
+    private static List<Integer> listSegments(Path directory) throws IOException {
+        List<Integer> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith("journal-") && name.endsWith(".log"))
+                    .forEach(name -> segments.add(Integer.parseInt(name.substring("journal-".length(), name.length() - ".log".length()))));
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    // Reads the valid prefix of a segment, applying each entry to the accounts when they are given.
+    private static Scan scan(Path file, Replay replay) throws IOException {
+        Scan scan = new Scan();
+        if (!Files.exists(file)) {
+            return scan;
+        }
+
+        CRC32 checksum = new CRC32();
+        byte[] payload = new byte[MAX_PAYLOAD_SIZE];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                int payloadLength;
+                int expectedCrc;
+                try {
+                    payloadLength = in.readInt();
+                    expectedCrc = in.readInt();
+                    if (payloadLength < FIXED_PAYLOAD_SIZE || payloadLength > MAX_PAYLOAD_SIZE) {
+                        break;
+                    }
+                    in.readFully(payload, 0, payloadLength);
+                } catch (EOFException e) {
+                    break;
+                }
+
+                checksum.reset();
+                checksum.update(payload, 0, payloadLength);
+                if ((int) checksum.getValue() != expectedCrc) {
+                    break;
+                }
+
+                ByteBuffer entry = ByteBuffer.wrap(payload, 0, payloadLength);
+                long sequence = entry.getLong();
+                scan.lastSequence = Math.max(scan.lastSequence, sequence);
+                if (replay != null) {
+                    replay.apply(sequence, entry);
+                }
+                scan.entries++;
+                scan.validLength += HEADER_SIZE + payloadLength;
+            }
+        }
+        return scan;
+    }
+
+    // Entries are not stored in sequence order, so each account is compared against the journal sequence it had
+    // before replay started (zero when seeded, the snapshot's value when restored) rather than a running value.
+    private static class Replay {
+        private final Database<AccountModel> accounts;
+        // Keyed by id: a mapped store hands out a new view of the account on every get.
+        private final Map<String, long[]> sequences = new HashMap<>();
+
+        Replay(Database<AccountModel> accounts) {
+            this.accounts = accounts;
+        }
+
+        void apply(long sequence, ByteBuffer entry) {
+            byte kind = entry.get();
+            UUID id = new UUID(entry.getLong(), entry.getLong());
+            LocalDate date = LocalDate.ofEpochDay(entry.getLong());
+            long debitedMinorUnits = entry.getLong();
+            entry.get(); // debit currency, always the source account's currency
+            long creditedMinorUnits = entry.getLong();
+            CurrencyType creditCurrency = CurrencyType.values()[entry.get()];
+            String from = readString(entry);
+            String to = readString(entry);
+            long rateVersion = entry.remaining() >= RATE_VERSION_SIZE ? entry.getLong() : 0;
+
+            AccountModel fromAccount = accounts.get(from);
+            AccountModel toAccount = accounts.get(to);
+            if (fromAccount == null || toAccount == null) {
+                throw new RuntimeException("The journal references an account that does not exist: " + (fromAccount == null ? from : to));
+            }
+
+            if (kind == INTEREST) {
+                if (isNewer(toAccount, sequence)) {
+                    toAccount.getBalance().add(creditedMinorUnits);
+                    // Postings can be replayed out of order, so only ever move the interest date forward. An account
+                    // that was never capitalized has no date yet, which counts as before any posting.
+                    if (toAccount instanceof SavingsAccountModel savingsAccount
+                            && (savingsAccount.getLastInterestAppliedDate() == null || date.isAfter(savingsAccount.getLastInterestAppliedDate()))) {
+                        savingsAccount.setLastInterestAppliedDate(date);
+                    }
+                }
+                return;
+            }
+
+            TransactionModel transaction = new TransactionModel(id, from, to, MoneyModel.ofMinorUnits(creditedMinorUnits, creditCurrency), date, rateVersion);
+            if (isNewer(fromAccount, sequence)) {
+                fromAccount.getBalance().subtract(debitedMinorUnits);
+                if (kind == TRANSFER) {
+                    fromAccount.getHistory().append(transaction);
+                }
+                recordRollup(fromAccount, date, debitedMinorUnits, 0);
+            }
+            if (kind == TRANSFER && isNewer(toAccount, sequence)) {
+                toAccount.getBalance().add(creditedMinorUnits);
+                toAccount.getHistory().append(transaction);
+                recordRollup(toAccount, date, 0, creditedMinorUnits);
+            }
+        }
+
+        // Only the repository's accounts have rollups. An account's records are in the order it was locked in, so
+        // its balance right after one is applied is that transaction's closing balance, as it was when committed.
+        private void recordRollup(AccountModel account, LocalDate date, long debitedMinorUnits, long creditedMinorUnits) {
+            if (accounts == AccountsRepository.INSTANCE) {
+                AccountsRepository.ROLLUP_INDEX.of(account).record(date, debitedMinorUnits, creditedMinorUnits, account.getBalance());
+            }
+        }
+
+        private boolean isNewer(AccountModel account, long sequence) {
+            long[] state = sequences.computeIfAbsent(account.getId(), key -> new long[]{account.getJournalSequence(), account.getJournalSequence()});
+            if (sequence <= state[0]) {
+                return false;
+            }
+            state[1] = Math.max(state[1], sequence);
+            return true;
+        }
+
+        void finish() {
+            sequences.forEach((id, state) -> accounts.get(id).setJournalSequence(state[1]));
+        }
+    }
+
+    private static String readString(ByteBuffer entry) {
+        int length = entry.getShort();
+        String value = new String(entry.array(), entry.arrayOffset() + entry.position(), length, StandardCharsets.UTF_8);
+        entry.position(entry.position() + length);
+        return value;
+    }
+
+    private static class Scan {
+        long validLength;
+        long lastSequence;
+        long entries;
+    }
+}
@@ -0,0 +1,48 @@
+package main.java.services;
+
+import java.time.LocalDate;
+
+public class CapitalizationReport {
+    private final LocalDate interestDate;
+    private final long accountsScanned;
+    private final long accountsCapitalized;
+    private final long durationNanos;
+
+    public CapitalizationReport(LocalDate interestDate, long accountsScanned, long accountsCapitalized, long durationNanos) {
+        this.interestDate = interestDate;
+        this.accountsScanned = accountsScanned;
+        this.accountsCapitalized = accountsCapitalized;
+        this.durationNanos = durationNanos;
+    }
+
+    public LocalDate getInterestDate() {
+        return interestDate;
+    }
+
+    public long getAccountsScanned() {
+        return accountsScanned;
+    }
+
+    public long getAccountsCapitalized() {
+        return accountsCapitalized;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public double getAccountsPerSecond() {
+        return durationNanos == 0 ? 0 : accountsScanned * 1_000_000_000.0 / durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "CapitalizationReport{" +
+                "interestDate=" + interestDate +
+                ", accountsScanned=" + accountsScanned +
+                ", accountsCapitalized=" + accountsCapitalized +
+                ", durationMillis=" + durationNanos / 1_000_000.0 +
+                ", accountsPerSecond=" + Math.round(getAccountsPerSecond()) +
+                '}';
+    }
+}
@@ -0,0 +1,118 @@
+package main.java.services;
+
+import main.java.domain.AccountModel;
+import main.java.domain.CardModel;
+import main.java.domain.CheckingAccountModel;
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionModel;
+import main.java.repository.AccountsRepository;
+import main.java.repository.CardsRepository;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+// Card-present operations on a checking account: cash withdrawals count against the card's daily withdrawal
+// limit and payments against its daily transaction limit, both in the account's currency. The amount is
+// reserved on the card before the balance is touched and given back if the operation fails, so concurrent
+// authorizations on one card can never overshoot a limit.
+public class CardManagerService {
+    private final TransactionManagerService transactionManagerService;
+    private final ExchangeRateService exchangeRates;
+    private final Clock clock;
+
+    public CardManagerService() {
+        this(new TransactionManagerService(), ExchangeRateService.INSTANCE, Clock.systemDefaultZone());
+    }
+
+    public CardManagerService(TransactionManagerService transactionManagerService, ExchangeRateService exchangeRates, Clock clock) {
+        this.transactionManagerService = transactionManagerService;
+        this.exchangeRates = exchangeRates;
+        this.clock = clock;
+    }
+
+    public TransactionModel withdraw(String accountId, MoneyModel amount) {
+        return withdraw(AccountsRepository.HANDLE_INDEX.get(accountId), amount);
+    }
+
+    // Card-present withdrawal: the account is found through the card number index.
+    public TransactionModel withdrawWithCard(long cardNumber, MoneyModel amount) {
+        return withdraw(cardAccount(cardNumber), amount);
+    }
+
+    public TransactionModel pay(String accountId, String merchantAccountId, MoneyModel amount) {
+        return pay(AccountsRepository.HANDLE_INDEX.get(accountId), merchantAccountId, amount);
+    }
+
+    public TransactionModel payWithCard(long cardNumber, String merchantAccountId, MoneyModel amount) {
+        return pay(cardAccount(cardNumber), merchantAccountId, amount);
+    }
+
+    private TransactionModel withdraw(AccountModel account, MoneyModel amount) {
+        LocalDate today = LocalDate.now(clock);
+        CardModel card = authorizedCard(account, amount, today);
+
+        CurrencyType accountCurrency = account.getBalance().getCurrency();
+        long limit = MoneyModel.toMinorUnits(card.getDailyWithdrawalLimit(), accountCurrency);
+        long epochDay = today.toEpochDay();
+        if (!card.getUsage().tryWithdraw(epochDay, amount.getMinorUnits(), limit)) {
+            throw new RuntimeException("The withdrawal exceeds the card's daily withdrawal limit.");
+        }
+
+        try {
+            return transactionManagerService.withdraw(account.getId(), amount);
+        } catch (RuntimeException e) {
+            card.getUsage().releaseWithdrawal(epochDay, amount.getMinorUnits());
+            throw e;
+        }
+    }
+
+    private TransactionModel pay(AccountModel account, String merchantAccountId, MoneyModel amount) {
+        LocalDate today = LocalDate.now(clock);
+        CardModel card = authorizedCard(account, amount, today);
+
+        CurrencyType accountCurrency = account.getBalance().getCurrency();
+        long limit = MoneyModel.toMinorUnits(card.getDailyTransactionLimit(), accountCurrency);
+        long spent = exchangeRates.getRates().convertMinorUnits(amount.getMinorUnits(), amount.getCurrency(), accountCurrency);
+        long epochDay = today.toEpochDay();
+        if (!card.getUsage().trySpend(epochDay, spent, limit)) {
+            throw new RuntimeException("The payment exceeds the card's daily transaction limit.");
+        }
+
+        try {
+            return transactionManagerService.transfer(account.getId(), merchantAccountId, amount);
+        } catch (RuntimeException e) {
+            card.getUsage().releaseSpend(epochDay, spent);
+            throw e;
+        }
+    }
+
+    private AccountModel cardAccount(long cardNumber) {
+        AccountModel account = CardsRepository.INSTANCE.getAccount(cardNumber);
+        if (account == null) {
+            throw new RuntimeException("Specified card does not exist.");
+        }
+        return account;
+    }
+
+    private CardModel authorizedCard(AccountModel account, MoneyModel amount, LocalDate today) {
+        if (account == null) {
+            throw new RuntimeException("Specified account does not exist.");
+        }
+        if (!(account instanceof CheckingAccountModel checkingAccount) || checkingAccount.getAssociatedCard() == null) {
+            throw new RuntimeException("The account has no card associated with it.");
+        }
+        if (amount.getMinorUnits() < 0) {
+            throw new RuntimeException("The card amount should be greater than zero.");
+        }
+
+        CardModel card = checkingAccount.getAssociatedCard();
+        if (!card.isActive()) {
+            throw new RuntimeException("The card is not active.");
+        }
+        if (card.getExpirationDate().isBefore(today)) {
+            throw new RuntimeException("The card has expired.");
+        }
+        return card;
+    }
+}
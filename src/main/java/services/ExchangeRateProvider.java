@@ -0,0 +1,12 @@
+package main.java.services;
+
+import main.java.domain.RateTable;
+
+import java.io.IOException;
+
+// Source of the rates loaded by ExchangeRateService. Transactions record the version of the table they were
+// converted with, so the provider owns the version: the same rates must come back with the same version after a
+// restart, and a version must grow whenever the rates change.
+public interface ExchangeRateProvider {
+    RateTable fetchRates() throws IOException;
+}
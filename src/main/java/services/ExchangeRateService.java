@@ -0,0 +1,62 @@
+package main.java.services;
+
+import main.java.domain.RateTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Holds the current RateTable. Updates build a complete new table and swap it in atomically, so a reader
+// that takes getRates() once sees one consistent set of rates without any locking, and every table carries
+// the version that transactions record. Versions come from the provider, so a restart keeps them.
+public class ExchangeRateService {
+    public static final ExchangeRateService INSTANCE = new ExchangeRateService(createProvider());
+
+    private final ExchangeRateProvider provider;
+    private final AtomicReference<RateTable> rates = new AtomicReference<>(new RateTable(0, List.of()));
+
+    public ExchangeRateService(ExchangeRateProvider provider) {
+        this.provider = provider;
+        try {
+            rates.set(provider.fetchRates());
+        } catch (IOException e) {
+            throw new UncheckedIOException("The exchange rates could not be loaded.", e);
+        }
+    }
+
+    // Rates come from -Dbanking.exchangeRates=<file> when it is set, otherwise from the built-in stand-in.
+    private static ExchangeRateProvider createProvider() {
+        String ratesFile = System.getProperty("banking.exchangeRates");
+        return ratesFile == null ? FixedExchangeRateProvider.defaults() : new FileExchangeRateProvider(Path.of(ratesFile));
+    }
+
+    public RateTable getRates() {
+        return rates.get();
+    }
+
+    // Reloads the provider's rates; on failure the current table stays in place.
+    public RateTable refresh() throws IOException {
+        return update(provider.fetchRates());
+    }
+
+    public RateTable update(RateTable table) {
+        rates.set(table);
+        return table;
+    }
+
+    public ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, Duration period) {
+        return scheduler.scheduleAtFixedRate(() -> {
+            try {
+                refresh();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[Exchange Rates] Refresh failed, keeping version " + getRates().getVersion() + ": " + e);
+            }
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,51 @@
+package main.java.services;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.ExchangeRateQuote;
+import main.java.domain.RateTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads rates from a text file with one "<from> <to> <rate>" quote per line, e.g. "EUR RON 4.98".
+// Blank lines and lines starting with # are ignored. The file is read again on every refresh, and the table's
+// version is the file's last modification time in milliseconds, so it survives restarts and grows with every
+// rewrite of the file.
+public class FileExchangeRateProvider implements ExchangeRateProvider {
+    private final Path file;
+
+    public FileExchangeRateProvider(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public RateTable fetchRates() throws IOException {
+        // Taken before the contents, so a rewrite during the read shows up as a newer version on the next refresh.
+        long version = Files.getLastModifiedTime(file).toMillis();
+        List<ExchangeRateQuote> quotes = new ArrayList<>();
+        List<String> lines = Files.readAllLines(file);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if (fields.length != 3) {
+                throw new IOException("Malformed exchange rate on line " + (i + 1) + " of " + file + ": " + line);
+            }
+            try {
+                quotes.add(new ExchangeRateQuote(CurrencyType.valueOf(fields[0]), CurrencyType.valueOf(fields[1]), Double.parseDouble(fields[2])));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed exchange rate on line " + (i + 1) + " of " + file + ": " + line, e);
+            }
+        }
+        return new RateTable(version, quotes);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,43 @@
+package main.java.services;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.ExchangeRateQuote;
+import main.java.domain.RateTable;
+
+import java.util.List;
+
+// In-process stand-in for a rate feed, serving the same table, with the same version, every time.
+public class FixedExchangeRateProvider implements ExchangeRateProvider {
+    private final RateTable rates;
+
+    public FixedExchangeRateProvider(List<ExchangeRateQuote> quotes) {
+        this(1, quotes);
+    }
+
+    public FixedExchangeRateProvider(long version, List<ExchangeRateQuote> quotes) {
+        this.rates = new RateTable(version, quotes);
+    }
+
+    // The rates the application has always used for RON/EUR, plus one quote per pair for the other currencies;
+    // the opposite directions are derived from these.
+    public static FixedExchangeRateProvider defaults() {
+        return new FixedExchangeRateProvider(List.of(
+                new ExchangeRateQuote(CurrencyType.EUR, CurrencyType.RON, 4.98),
+                new ExchangeRateQuote(CurrencyType.RON, CurrencyType.EUR, 0.20),
+                new ExchangeRateQuote(CurrencyType.USD, CurrencyType.RON, 4.60),
+                new ExchangeRateQuote(CurrencyType.GBP, CurrencyType.RON, 5.80),
+                new ExchangeRateQuote(CurrencyType.CHF, CurrencyType.RON, 5.20),
+                new ExchangeRateQuote(CurrencyType.EUR, CurrencyType.USD, 1.08),
+                new ExchangeRateQuote(CurrencyType.EUR, CurrencyType.GBP, 0.86),
+                new ExchangeRateQuote(CurrencyType.EUR, CurrencyType.CHF, 0.96),
+                new ExchangeRateQuote(CurrencyType.GBP, CurrencyType.USD, 1.26),
+                new ExchangeRateQuote(CurrencyType.USD, CurrencyType.CHF, 0.88),
+                new ExchangeRateQuote(CurrencyType.GBP, CurrencyType.CHF, 1.12)
+        ));
+    }
+
+    @Override
+    public RateTable fetchRates() {
+        return rates;
+    }
+}
@@ -0,0 +1,376 @@
+package main.java.services;
+
+import main.java.domain.*;
+import main.java.metrics.OperationMetrics;
+import main.java.metrics.ServiceMetrics;
+import main.java.repository.AccountsRepository;
+import main.java.utils.CommandRing;
+import main.java.utils.TimeOrderedIdGenerator;
+
+import java.time.LocalDate;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Single-writer alternative to the lock-based TransactionManagerService. Accounts are split into partitions
+// by id hash and each partition is owned by one thread, the only one that ever changes its accounts'
+// balances and histories, so no account lock is taken. Callers hand commands over through the partition's
+// CommandRing and get a future back.
+//
+// A transfer is executed in two phases. The source partition validates it, checks the funds and debits the
+// source; if the target lives in another partition it then sends that partition a credit, which cannot be
+// refused since everything that could reject the transfer was already checked. Between the two phases the
+// amount is in flight, so a sum of all balances taken at that moment lacks it. Should the credit still fail
+// before the target's balance is credited (its catch-up or history throws), the target partition sends the
+// source partition a refund, which credits the debited amount back and fails the caller's future.
+//
+// Accounts must not be changed through TransactionManagerService while this service runs over them, and
+// transactions executed here are not journaled. Neither may eager SavingsManagerService runs capitalize them:
+// those lock the accounts through AccountLocks, which the partitions do not take. Lazy capitalization is
+// fine as long as nothing else touches the accounts, since the partitions then are the only ones catching
+// them up.
+public class PartitionedTransactionService implements AutoCloseable {
+    public static final int DEFAULT_RING_CAPACITY = 4096;
+    private static final int IDLE_SPINS = 100;
+
+    private final Partition[] partitions;
+    private final ExchangeRateService exchangeRates;
+    private final TransactionIdGenerator idGenerator;
+    // Commands accepted and not yet completed, credits in flight included.
+    private final AtomicLong pending = new AtomicLong();
+    private volatile boolean accepting = true;
+    private volatile boolean stopped;
+
+    public PartitionedTransactionService() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_RING_CAPACITY);
+    }
+
+    public PartitionedTransactionService(int partitionCount, int ringCapacity) {
+        this(partitionCount, ringCapacity, ExchangeRateService.INSTANCE, new TimeOrderedIdGenerator());
+    }
+
+    public PartitionedTransactionService(int partitionCount, int ringCapacity, ExchangeRateService exchangeRates, TransactionIdGenerator idGenerator) {
+        this.exchangeRates = exchangeRates;
+        this.idGenerator = idGenerator;
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, ringCapacity);
+        }
+        for (Partition partition : partitions) {
+            partition.thread.start();
+        }
+    }
+
+    public CompletableFuture<TransactionResult> transfer(String fromAccountId, String toAccountId, MoneyModel value) {
+        return submit(partitionOf(fromAccountId), new TransferCommand(fromAccountId, toAccountId, value));
+    }
+
+    public CompletableFuture<TransactionResult> withdraw(String accountId, MoneyModel amount) {
+        return submit(partitionOf(accountId), new WithdrawCommand(accountId, amount));
+    }
+
+    public int partitionOf(String accountId) {
+        int hash = accountId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions.length);
+    }
+
+    // Stops accepting commands, waits until every accepted one has completed and stops the partition threads.
+    @Override
+    public void close() {
+        accepting = false;
+        while (pending.get() > 0) {
+            LockSupport.parkNanos(100_000);
+        }
+        stopped = true;
+        for (Partition partition : partitions) {
+            LockSupport.unpark(partition.thread);
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private CompletableFuture<TransactionResult> submit(int partitionIndex, Command command) {
+        // Counted before checking whether the service still accepts commands, so close() either sees the
+        // command as pending or this call sees the service closing.
+        pending.incrementAndGet();
+        if (!accepting) {
+            pending.decrementAndGet();
+            command.result.completeExceptionally(new RuntimeException("The transaction service is closed."));
+            return command.result;
+        }
+        Partition partition = partitions[partitionIndex];
+        while (!partition.commands.offer(command)) {
+            Thread.yield();
+        }
+        partition.wake();
+        return command.result;
+    }
+
+    private abstract class Command {
+        final CompletableFuture<TransactionResult> result = new CompletableFuture<>();
+        final OperationMetrics metrics;
+        final long start;
+
+        Command(OperationMetrics metrics) {
+            this.metrics = metrics;
+            this.start = metrics.start();
+        }
+
+        void complete(TransactionResult outcome) {
+            if (!outcome.isAccepted()) {
+                metrics.reject(outcome.getRejectionReason());
+            }
+            metrics.stop(start);
+            pending.decrementAndGet();
+            result.complete(outcome);
+        }
+
+        void fail(RuntimeException e) {
+            pending.decrementAndGet();
+            result.completeExceptionally(e);
+        }
+    }
+
+    private class TransferCommand extends Command {
+        final String fromAccountId;
+        final String toAccountId;
+        final MoneyModel value;
+
+        TransferCommand(String fromAccountId, String toAccountId, MoneyModel value) {
+            super(ServiceMetrics.TRANSFER);
+            this.fromAccountId = fromAccountId;
+            this.toAccountId = toAccountId;
+            this.value = value;
+        }
+    }
+
+    private class WithdrawCommand extends Command {
+        final String accountId;
+        final MoneyModel amount;
+
+        WithdrawCommand(String accountId, MoneyModel amount) {
+            super(ServiceMetrics.WITHDRAW);
+            this.accountId = accountId;
+            this.amount = amount;
+        }
+    }
+
+    // Second phase of a transfer whose target lives in another partition.
+    private record Credit(TransferCommand transfer, AccountModel fromAccount, AccountModel toAccount, TransactionModel transaction,
+                          long debitedMinorUnits, long creditedMinorUnits) {
+    }
+
+    // Gives a credit that failed back to its source.
+    private record Refund(Credit credit, RuntimeException cause) {
+    }
+
+    private class Partition implements Runnable {
+        final CommandRing<Command> commands;
+        // Credits come from other partitions and are not bounded by the ring, so two partitions crediting
+        // each other can never both wait for room.
+        final Queue<Credit> credits = new ConcurrentLinkedQueue<>();
+        final Queue<Refund> refunds = new ConcurrentLinkedQueue<>();
+        final Thread thread;
+        volatile boolean parked;
+
+        Partition(int index, int ringCapacity) {
+            commands = new CommandRing<>(ringCapacity);
+            thread = new Thread(this, "transaction-partition-" + index);
+            thread.setDaemon(true);
+        }
+
+        void wake() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                if (drain()) {
+                    idle = 0;
+                } else if (stopped) {
+                    return;
+                } else if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    parked = true;
+                    if (commands.isEmpty() && credits.isEmpty() && refunds.isEmpty() && !stopped) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    idle = 0;
+                }
+            }
+        }
+
+        private boolean drain() {
+            boolean worked = false;
+            Refund refund;
+            while ((refund = refunds.poll()) != null) {
+                try {
+                    applyRefund(refund);
+                } catch (RuntimeException e) {
+                    refund.credit().transfer().fail(e);
+                }
+                worked = true;
+            }
+            Credit credit;
+            while ((credit = credits.poll()) != null) {
+                try {
+                    applyCredit(credit);
+                } catch (RuntimeException e) {
+                    // Only thrown once the target's balance has been credited, so the money has landed; the
+                    // caller learns that the rest of the bookkeeping did not.
+                    credit.transfer().fail(e);
+                }
+                worked = true;
+            }
+            Command command;
+            while ((command = commands.poll()) != null) {
+                try {
+                    if (command instanceof TransferCommand transfer) {
+                        executeTransfer(transfer);
+                    } else {
+                        WithdrawCommand withdrawal = (WithdrawCommand) command;
+                        withdrawal.complete(executeWithdraw(withdrawal));
+                    }
+                } catch (RuntimeException e) {
+                    command.fail(e);
+                }
+                worked = true;
+            }
+            return worked;
+        }
+
+        private void executeTransfer(TransferCommand command) {
+            AccountModel fromAccount = AccountsRepository.HANDLE_INDEX.get(command.fromAccountId);
+            AccountModel toAccount = AccountsRepository.HANDLE_INDEX.get(command.toAccountId);
+            MoneyModel value = command.value;
+
+            RejectionReason rejection = TransactionManagerService.validateTransfer(fromAccount, toAccount, value);
+            if (rejection != null) {
+                command.complete(TransactionResult.rejected(rejection));
+                return;
+            }
+
+            CurrencyType fromCurrency = fromAccount.getBalance().getCurrency();
+            CurrencyType toCurrency = toAccount.getBalance().getCurrency();
+            RateTable rates = exchangeRates.getRates();
+            if (!rates.supports(value.getCurrency(), fromCurrency) || !rates.supports(value.getCurrency(), toCurrency)) {
+                command.complete(TransactionResult.rejected(RejectionReason.UNSUPPORTED_CURRENCY));
+                return;
+            }
+            long debitedMinorUnits = rates.convertMinorUnits(value.getMinorUnits(), value.getCurrency(), fromCurrency);
+            long creditedMinorUnits = rates.convertMinorUnits(value.getMinorUnits(), value.getCurrency(), toCurrency);
+            if (fromAccount.getBalance().getMinorUnits() < debitedMinorUnits) {
+                command.complete(TransactionResult.rejected(RejectionReason.INSUFFICIENT_FUNDS));
+                return;
+            }
+
+            MoneyModel creditedValue = value.getCurrency() == toCurrency ? value : MoneyModel.ofMinorUnits(creditedMinorUnits, toCurrency);
+            TransactionModel transaction = new TransactionModel(
+                    idGenerator.nextId(),
+                    fromAccount.getHandle(),
+                    toAccount.getHandle(),
+                    creditedValue,
+                    LocalDate.now(),
+                    rates.getVersion()
+            );
+            fromAccount.getBalance().subtract(debitedMinorUnits);
+            fromAccount.getHistory().append(transaction);
+            TransactionManagerService.recordRollup(fromAccount, transaction.getTimestamp(), debitedMinorUnits, 0);
+
+            Credit credit = new Credit(command, fromAccount, toAccount, transaction, debitedMinorUnits, creditedMinorUnits);
+            Partition target = partitions[partitionOf(command.toAccountId)];
+            if (target == this) {
+                applyCredit(credit);
+            } else {
+                target.credits.add(credit);
+                target.wake();
+            }
+        }
+
+        // The balance is credited only after everything that may still throw, so a failure either leaves the
+        // target untouched and is refunded, or comes after the money has landed.
+        private void applyCredit(Credit credit) {
+            AccountModel toAccount = credit.toAccount();
+            try {
+                SavingsManagerService.catchUp(toAccount);
+                toAccount.getHistory().append(credit.transaction());
+            } catch (RuntimeException e) {
+                Refund refund = new Refund(credit, e);
+                Partition source = partitions[partitionOf(credit.transfer().fromAccountId)];
+                if (source == this) {
+                    applyRefund(refund);
+                } else {
+                    source.refunds.add(refund);
+                    source.wake();
+                }
+                return;
+            }
+            toAccount.getBalance().add(credit.creditedMinorUnits());
+            TransactionManagerService.recordRollup(toAccount, credit.transaction().getTimestamp(), 0, credit.creditedMinorUnits());
+            credit.transfer().complete(TransactionResult.accepted(credit.transaction()));
+        }
+
+        // Credits the source with what it was debited, recorded as a transaction back from the target, and fails
+        // the transfer with the reason its credit did not land.
+        private void applyRefund(Refund refund) {
+            Credit credit = refund.credit();
+            AccountModel fromAccount = credit.fromAccount();
+            TransactionModel reversal = new TransactionModel(
+                    idGenerator.nextId(),
+                    credit.toAccount().getHandle(),
+                    fromAccount.getHandle(),
+                    MoneyModel.ofMinorUnits(credit.debitedMinorUnits(), fromAccount.getBalance().getCurrency()),
+                    LocalDate.now(),
+                    credit.transaction().getRateVersion()
+            );
+            fromAccount.getBalance().add(credit.debitedMinorUnits());
+            fromAccount.getHistory().append(reversal);
+            TransactionManagerService.recordRollup(fromAccount, reversal.getTimestamp(), 0, credit.debitedMinorUnits());
+            credit.transfer().fail(refund.cause());
+        }
+
+        private TransactionResult executeWithdraw(WithdrawCommand command) {
+            AccountModel account = AccountsRepository.HANDLE_INDEX.get(command.accountId);
+            MoneyModel amount = command.amount;
+            if (account == null) {
+                return TransactionResult.rejected(RejectionReason.UNKNOWN_ACCOUNT);
+            }
+            if (amount.getMinorUnits() < 0) {
+                return TransactionResult.rejected(RejectionReason.NEGATIVE_AMOUNT);
+            }
+            if (account.getBalance().getCurrency() != amount.getCurrency()) {
+                return TransactionResult.rejected(RejectionReason.CURRENCY_MISMATCH);
+            }
+            SavingsManagerService.catchUp(account);
+            if (account.getBalance().getMinorUnits() < amount.getMinorUnits()) {
+                return TransactionResult.rejected(RejectionReason.INSUFFICIENT_FUNDS);
+            }
+
+            TransactionModel transaction = new TransactionModel(
+                    idGenerator.nextId(),
+                    account.getHandle(),
+                    account.getHandle(),
+                    amount,
+                    LocalDate.now(),
+                    0
+            );
+            account.getBalance().subtract(amount.getMinorUnits());
+            TransactionManagerService.recordRollup(account, transaction.getTimestamp(), amount.getMinorUnits(), 0);
+            return TransactionResult.accepted(transaction);
+        }
+    }
+}
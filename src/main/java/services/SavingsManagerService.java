@@ -1,59 +1,270 @@
 package main.java.services;
 
+import main.java.domain.AccountModel;
 import main.java.domain.CapitalizationFrequency;
 import main.java.domain.SavingsAccountModel;
+import main.java.metrics.ServiceMetrics;
+import main.java.repository.AccountLocks;
 import main.java.repository.AccountsRepository;
+import main.java.repository.InterestDueIndex;
+import main.java.repository.TransactionJournal;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
 
 public class SavingsManagerService {
+    private static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    // The service whose accounts are capitalized lazily, if any; see enableLazyCapitalization().
+    private static volatile SavingsManagerService lazyService;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final boolean useDueIndex;
+    private final TransactionJournal journal;
     private LocalDate systemDate = LocalDate.now();
+    // In lazy mode, the system dates since lazy mode was enabled, one per month; null in eager mode.
+    private volatile LocalDate[] lazyMonthDates;
+
+    public SavingsManagerService() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, true);
+    }
+
+    public SavingsManagerService(ForkJoinPool pool, int chunkSize) {
+        this(pool, chunkSize, true);
+    }
+
+    // With useDueIndex a run only visits the accounts the interest due index lists for the new month;
+    // without it every account in the repository is scanned.
+    public SavingsManagerService(ForkJoinPool pool, int chunkSize, boolean useDueIndex) {
+        this(pool, chunkSize, useDueIndex, null);
+    }
+
+    // With a journal every interest posting of a run is durable once passTime() returns.
+    public SavingsManagerService(ForkJoinPool pool, int chunkSize, boolean useDueIndex, TransactionJournal journal) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be greater than zero.");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.useDueIndex = useDueIndex;
+        this.journal = journal;
+    }
+
+    public CapitalizationReport passTime() {
+        return passTime(1);
+    }
 
-    public void passTime() {
-        List<SavingsAccountModel> savingAccounts = AccountsRepository.INSTANCE.getAll().stream()
-                .filter(account -> account instanceof SavingsAccountModel)
-                .map(account -> (SavingsAccountModel) account).toList();
+    // Switches to lazy capitalization: from now on passTime() only advances the system date, and a savings
+    // account receives the capitalizations it is due when it is next touched (see catchUp). Accounts that are
+    // never touched are never visited. Balances and interest dates come out exactly as with eager runs.
+    public void enableLazyCapitalization() {
+        lazyMonthDates = new LocalDate[]{systemDate};
+        lazyService = this;
+    }
 
-        LocalDate nextSystemDate = systemDate.plusMonths(1);
+    // Brings every account up to date in one sweep and returns to eager month-end runs. The sweep does the work
+    // the lazy passTime calls deferred, so it is timed as a passTime call.
+    public CapitalizationReport disableLazyCapitalization() {
+        LocalDate[] monthDates = lazyMonthDates;
+        if (monthDates == null) {
+            return new CapitalizationReport(systemDate, 0, 0, 0);
+        }
+        long metricsStart = ServiceMetrics.PASS_TIME.start();
+        long start = System.nanoTime();
+        LongAdder scanned = new LongAdder();
+        LongAdder capitalized = new LongAdder();
+        pool.invoke(new CapitalizationTask(AccountsRepository.INSTANCE.spliterator(), monthDates, scanned, capitalized));
+        if (journal != null) {
+            journal.sync();
+        }
+        if (lazyService == this) {
+            lazyService = null;
+        }
+        lazyMonthDates = null;
+        ServiceMetrics.PASS_TIME.stop(metricsStart);
+        return new CapitalizationReport(systemDate, scanned.sum(), capitalized.sum(), System.nanoTime() - start);
+    }
 
-        savingAccounts.forEach(savingAccount -> {
-            if (savingAccount.getInterestFrequency() == CapitalizationFrequency.MONTHLY) {
-                addMonthlyInterest(savingAccount, nextSystemDate);
-            } else if (savingAccount.getInterestFrequency() == CapitalizationFrequency.QUARTERLY) {
-                addQuarterlyInterest(savingAccount, nextSystemDate);
+    // Applies the capitalizations a savings account is due under lazy capitalization; does nothing for other
+    // accounts or when no service is lazy. Called before a savings balance is read or changed.
+    public static void catchUp(AccountModel account) {
+        SavingsManagerService service = lazyService;
+        if (service != null && account instanceof SavingsAccountModel savingAccount) {
+            LocalDate[] monthDates = service.lazyMonthDates;
+            if (monthDates != null) {
+                service.capitalize(savingAccount, monthDates);
             }
-        });
+        }
+    }
 
-        systemDate = nextSystemDate;
+    // Moves the system date forward to the month of the given date.
+    public CapitalizationReport advanceTo(LocalDate date) {
+        return passTime((int) YearMonth.from(systemDate).until(YearMonth.from(date), ChronoUnit.MONTHS));
     }
 
-    private void addMonthlyInterest(SavingsAccountModel savingAccount, LocalDate currentInterestMonth) {
-        LocalDate nextInterestDateForAccount = savingAccount.getLastInterestAppliedDate().plusMonths(1);
+    // Moves the system date forward by the given number of months in a single pass. Every account ends up
+    // exactly as after that many passTime() calls, with the same balance and last interest date, but it is
+    // visited, locked and journaled once: the number of capitalizations due in the window follows from its
+    // next due month and frequency, and they are applied back to back. In lazy mode only the date moves.
+    public CapitalizationReport passTime(int months) {
+        if (months <= 0) {
+            throw new IllegalArgumentException("The number of months must be greater than zero.");
+        }
+        long metricsStart = ServiceMetrics.PASS_TIME.start();
+        long start = System.nanoTime();
+        LocalDate[] lazyDates = lazyMonthDates;
+        if (lazyDates != null) {
+            LocalDate[] extended = extend(lazyDates, months);
+            lazyMonthDates = extended;
+            systemDate = extended[extended.length - 1];
+            ServiceMetrics.PASS_TIME.stop(metricsStart);
+            return new CapitalizationReport(systemDate, 0, 0, System.nanoTime() - start);
+        }
+
+        LocalDate[] monthDates = extend(new LocalDate[]{systemDate}, months);
+
+        LongAdder scanned = new LongAdder();
+        LongAdder capitalized = new LongAdder();
+        if (useDueIndex) {
+            // An account is in the bucket of its next due month only, and once capitalized it is due after the
+            // window, so every account due in the window is visited exactly once.
+            for (int month = 1; month <= months; month++) {
+                Spliterator<? extends AccountModel> accounts = AccountsRepository.INTEREST_DUE_INDEX.getDueAccounts(YearMonth.from(monthDates[month])).spliterator();
+                pool.invoke(new CapitalizationTask(accounts, monthDates, scanned, capitalized));
+            }
+        } else {
+            pool.invoke(new CapitalizationTask(AccountsRepository.INSTANCE.spliterator(), monthDates, scanned, capitalized));
+        }
+        if (journal != null) {
+            journal.sync();
+        }
 
-        if (isSameMonthAndYear(currentInterestMonth, nextInterestDateForAccount)) {
-            addInterest(savingAccount);
-            savingAccount.setLastInterestAppliedDate(currentInterestMonth);
+        systemDate = monthDates[months];
+        ServiceMetrics.PASS_TIME.stop(metricsStart);
+        return new CapitalizationReport(systemDate, scanned.sum(), capitalized.sum(), System.nanoTime() - start);
+    }
+
+    // Appends the dates of the given number of further monthly runs; stepping one month at a time matters at
+    // month ends.
+    private static LocalDate[] extend(LocalDate[] monthDates, int months) {
+        LocalDate[] extended = Arrays.copyOf(monthDates, monthDates.length + months);
+        for (int month = monthDates.length; month < extended.length; month++) {
+            extended[month] = extended[month - 1].plusMonths(1);
         }
+        return extended;
     }
 
-    private void addQuarterlyInterest(SavingsAccountModel savingAccount, LocalDate currentInterestMonth) {
-        LocalDate nextInterestDateForAccount = savingAccount.getLastInterestAppliedDate().plusMonths(3);
+    // Splits the source spliterator (the repository or a due index bucket) until chunks are small enough, so
+    // the savings book is partitioned across the pool without first being copied into a list.
+    // RecursiveAction is Serializable, but the tasks only live for one run and are never serialized.
+    @SuppressWarnings("serial")
+    private class CapitalizationTask extends RecursiveAction {
+        private final Spliterator<? extends AccountModel> accounts;
+        private final LocalDate[] monthDates;
+        private final LongAdder scanned;
+        private final LongAdder capitalized;
+
+        CapitalizationTask(Spliterator<? extends AccountModel> accounts, LocalDate[] monthDates, LongAdder scanned, LongAdder capitalized) {
+            this.accounts = accounts;
+            this.monthDates = monthDates;
+            this.scanned = scanned;
+            this.capitalized = capitalized;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<? extends AccountModel> remaining = accounts;
+            Spliterator<? extends AccountModel> split;
+            List<CapitalizationTask> forked = new ArrayList<>();
+
+            while (remaining.estimateSize() > chunkSize && (split = remaining.trySplit()) != null) {
+                CapitalizationTask task = new CapitalizationTask(split, monthDates, scanned, capitalized);
+                task.fork();
+                forked.add(task);
+            }
+
+            long[] counts = new long[2];
+            remaining.forEachRemaining(account -> {
+                if (account instanceof SavingsAccountModel savingAccount) {
+                    counts[0]++;
+                    if (capitalize(savingAccount, monthDates)) {
+                        counts[1]++;
+                    }
+                }
+            });
+            scanned.add(counts[0]);
+            capitalized.add(counts[1]);
+
+            forked.forEach(CapitalizationTask::join);
+        }
+    }
 
-        if (isSameMonthAndYear(currentInterestMonth, nextInterestDateForAccount)) {
-            addInterest(savingAccount);
-            savingAccount.setLastInterestAppliedDate(currentInterestMonth);
+    // monthDates[0] is the date the window starts from and monthDates[k] the date after k more months. An
+    // account is capitalized in month k when its next due month (last interest date plus one or three months)
+    // is that month, and then becomes due again one period later.
+    private boolean capitalize(SavingsAccountModel savingAccount, LocalDate[] monthDates) {
+        // Checked again under the account lock; most lazy touches find nothing due and stop here.
+        if (periodsDue(savingAccount, monthDates) == 0) {
+            return false;
         }
+        return addInterest(savingAccount, monthDates);
     }
 
-    private void addInterest(SavingsAccountModel savingAccount) {
-        double interest = savingAccount.getBalance().getAmount() * savingAccount.getInterest();
-        savingAccount.getBalance().setAmount(savingAccount.getBalance().getAmount() + interest);
+    private static int periodsDue(SavingsAccountModel savingAccount, LocalDate[] monthDates) {
+        if (savingAccount.getInterestFrequency() == null || savingAccount.getLastInterestAppliedDate() == null) {
+            return 0;
+        }
+        long firstDue = firstDue(savingAccount, monthDates);
+        int months = monthDates.length - 1;
+        if (firstDue < 1 || firstDue > months) {
+            return 0;
+        }
+        return 1 + (months - (int) firstDue) / period(savingAccount);
     }
 
-    private boolean isSameMonthAndYear(LocalDate date1, LocalDate date2) {
-        return date1.getMonth() == date2.getMonth() && date1.getYear() == date2.getYear();
+    private static long firstDue(SavingsAccountModel savingAccount, LocalDate[] monthDates) {
+        YearMonth dueMonth = InterestDueIndex.nextDueMonth(savingAccount.getInterestFrequency(), savingAccount.getLastInterestAppliedDate());
+        return YearMonth.from(monthDates[0]).until(dueMonth, ChronoUnit.MONTHS);
     }
-}
 
+    private static int period(SavingsAccountModel savingAccount) {
+        return savingAccount.getInterestFrequency() == CapitalizationFrequency.QUARTERLY ? 3 : 1;
+    }
 
+    // The interest date is moved under the same lock as the balance so a snapshot never sees one without the other.
+    // Each period's interest is rounded to minor units on its own, as separate monthly runs would.
+    private boolean addInterest(SavingsAccountModel savingAccount, LocalDate[] monthDates) {
+        long interest = 0;
+        int handle = savingAccount.getHandle();
+        AccountLocks.INSTANCE.lock(handle);
+        try {
+            int periods = periodsDue(savingAccount, monthDates);
+            if (periods == 0) {
+                return false;
+            }
+            for (int i = 0; i < periods; i++) {
+                interest += savingAccount.getBalance().applyRate(savingAccount.getInterest());
+            }
+            LocalDate lastInterestMonth = monthDates[(int) firstDue(savingAccount, monthDates) + (periods - 1) * period(savingAccount)];
+            savingAccount.setLastInterestAppliedDate(lastInterestMonth);
+            // Postings are made durable in bulk by the caller's sync().
+            if (journal != null) {
+                long journalSequence = journal.reserveSequence();
+                savingAccount.setJournalSequence(journalSequence);
+                journal.appendInterest(journalSequence, savingAccount.getId(), interest, savingAccount.getBalance().getCurrency(), lastInterestMonth);
+            }
+        } finally {
+            AccountLocks.INSTANCE.unlock(handle);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,80 @@
+package main.java.services;
+
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionPage;
+import main.java.domain.TransactionResult;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// In-process request front end for TransactionManagerService. Every request runs on its own virtual thread
+// and completes the returned future, so callers never block on account locks or journal syncs and any
+// number of clients can be served by a handful of carrier threads.
+//
+// At most maxInFlight requests run against the service at once. The permit is taken on the request's own
+// virtual thread, so submitting never blocks the caller: requests over the limit wait as parked virtual threads,
+// which only costs memory, and clients that must bound it should bound their own outstanding futures. Permits
+// are handed out in arrival order so no request is starved under overload. Rejected transfers and withdrawals
+// complete normally with a rejected TransactionResult; the futures only fail for unexpected errors and for
+// balance or history requests on unknown accounts.
+public class TransactionFrontEnd implements AutoCloseable {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+
+    private final TransactionManagerService transactionManagerService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+
+    public TransactionFrontEnd(TransactionManagerService transactionManagerService) {
+        this(transactionManagerService, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public TransactionFrontEnd(TransactionManagerService transactionManagerService, int maxInFlight) {
+        this.transactionManagerService = transactionManagerService;
+        this.inFlight = new Semaphore(maxInFlight, true);
+    }
+
+    public CompletableFuture<TransactionResult> transfer(String fromAccountId, String toAccountId, MoneyModel value) {
+        return submit(() -> transactionManagerService.tryTransfer(fromAccountId, toAccountId, value));
+    }
+
+    public CompletableFuture<TransactionResult> withdraw(String accountId, MoneyModel amount) {
+        return submit(() -> transactionManagerService.tryWithdraw(accountId, amount));
+    }
+
+    public CompletableFuture<MoneyModel> checkFunds(String accountId) {
+        return submit(() -> transactionManagerService.checkFunds(accountId));
+    }
+
+    public CompletableFuture<TransactionPage> retrieveTransactions(String accountId, LocalDate from, LocalDate to, long cursor, int pageSize) {
+        return submit(() -> transactionManagerService.retrieveTransactions(accountId, from, to, cursor, pageSize));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                inFlight.acquireUninterruptibly();
+                try {
+                    result.complete(request.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // Stops accepting requests and waits for the ones already submitted to finish.
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -1,120 +1,532 @@
 package main.java.services;
 
 import main.java.domain.*;
+import main.java.metrics.ServiceMetrics;
+import main.java.repository.AccountLocks;
 import main.java.repository.AccountsRepository;
+import main.java.repository.TransactionJournal;
+import main.java.utils.TimeOrderedIdGenerator;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 
 public class TransactionManagerService {
+    private static final int BATCH_CHUNK_SIZE = 128;
+    private static final TransactionIdGenerator DEFAULT_ID_GENERATOR = createIdGenerator();
+
+    private final TransactionJournal journal;
+    private final ExchangeRateService exchangeRates;
+    private final TransactionIdGenerator idGenerator;
+
+    public TransactionManagerService() {
+        this(null);
+    }
+
+    // With a journal every committed transfer and withdrawal is durable before the call returns.
+    public TransactionManagerService(TransactionJournal journal) {
+        this(journal, ExchangeRateService.INSTANCE);
+    }
+
+    public TransactionManagerService(TransactionJournal journal, ExchangeRateService exchangeRates) {
+        this(journal, exchangeRates, DEFAULT_ID_GENERATOR);
+    }
+
+    public TransactionManagerService(TransactionJournal journal, ExchangeRateService exchangeRates, TransactionIdGenerator idGenerator) {
+        this.journal = journal;
+        this.exchangeRates = exchangeRates;
+        this.idGenerator = idGenerator;
+    }
+
+    // Time-ordered ids unless -Dbanking.transactionIds=random asks for the previous random UUIDs.
+    private static TransactionIdGenerator createIdGenerator() {
+        return "random".equals(System.getProperty("banking.transactionIds")) ? TransactionIdGenerator.random() : new TimeOrderedIdGenerator();
+    }
 
     public TransactionModel transfer(String fromAccountId, String toAccountId, MoneyModel value) {
-        AccountModel fromAccount = AccountsRepository.INSTANCE.get(fromAccountId);
-        AccountModel toAccount = AccountsRepository.INSTANCE.get(toAccountId);
+        TransactionResult result = tryTransfer(fromAccountId, toAccountId, value);
+        if (!result.isAccepted()) {
+            throw new RuntimeException(transferRejectionMessage(result.getRejectionReason()));
+        }
+        return result.getTransaction();
+    }
 
-        if (fromAccount == null || toAccount == null) {
-            throw new RuntimeException("Specified account does not exist");
+    // Same as transfer, but a rejected transfer is reported as a shared result instead of an exception, so
+    // rejections cost no allocation or stack trace.
+    public TransactionResult tryTransfer(String fromAccountId, String toAccountId, MoneyModel value) {
+        long start = ServiceMetrics.TRANSFER.start();
+        try {
+            TransactionResult result = executeTransfer(AccountsRepository.HANDLE_INDEX.get(fromAccountId), AccountsRepository.HANDLE_INDEX.get(toAccountId), value);
+            if (!result.isAccepted()) {
+                ServiceMetrics.TRANSFER.reject(result.getRejectionReason());
+            }
+            return result;
+        } finally {
+            ServiceMetrics.TRANSFER.stop(start);
         }
+    }
 
-        if(fromAccount.getAccountType() == AccountType.SAVINGS && (toAccount.getAccountType() == AccountType.CHECKING || toAccount.getAccountType() == AccountType.SAVINGS)) {
-            throw new RuntimeException("You cannot perform the transfer functionality between the following types of accounts: " +
-                    "Savings Accounts => Checking Accounts, Savings Accounts => Savings Accounts");
+    // Same as tryTransfer, for callers that already hold AccountIdDictionary handles: the accounts are found by
+    // array index instead of by id.
+    public TransactionResult tryTransfer(int fromHandle, int toHandle, MoneyModel value) {
+        long start = ServiceMetrics.TRANSFER.start();
+        try {
+            TransactionResult result = executeTransfer(AccountsRepository.HANDLE_INDEX.get(fromHandle), AccountsRepository.HANDLE_INDEX.get(toHandle), value);
+            if (!result.isAccepted()) {
+                ServiceMetrics.TRANSFER.reject(result.getRejectionReason());
+            }
+            return result;
+        } finally {
+            ServiceMetrics.TRANSFER.stop(start);
         }
+    }
 
-        if(fromAccount.getBalance().getAmount() < value.getAmount()) {
-            throw new RuntimeException("The result of a transaction must not lead to negative account balance.");
+    private TransactionResult executeTransfer(AccountModel fromAccount, AccountModel toAccount, MoneyModel value) {
+        RejectionReason rejection = validateTransfer(fromAccount, toAccount, value);
+        if (rejection != null) {
+            return TransactionResult.rejected(rejection);
         }
+        int fromHandle = fromAccount.getHandle();
+        int toHandle = toAccount.getHandle();
+
+        CurrencyType fromCurrency = fromAccount.getBalance().getCurrency();
+        CurrencyType toCurrency = toAccount.getBalance().getCurrency();
 
-        if(value.getAmount() < 0) {
-            throw new RuntimeException("The transfer amount should be greater than zero.");
+        // The source is debited in its own currency and the target credited in its own currency; the
+        // recorded transaction carries the credited amount. Same-currency transfers allocate nothing here.
+        // Both legs are converted with the same table, whose version is recorded on the transaction.
+        RateTable rates = exchangeRates.getRates();
+        if (!rates.supports(value.getCurrency(), fromCurrency) || !rates.supports(value.getCurrency(), toCurrency)) {
+            return TransactionResult.rejected(RejectionReason.UNSUPPORTED_CURRENCY);
         }
+        long debitedMinorUnits = rates.convertMinorUnits(value.getMinorUnits(), value.getCurrency(), fromCurrency);
+        long creditedMinorUnits = rates.convertMinorUnits(value.getMinorUnits(), value.getCurrency(), toCurrency);
+        MoneyModel creditedValue = value.getCurrency() == toCurrency ? value : MoneyModel.ofMinorUnits(creditedMinorUnits, toCurrency);
+        SavingsManagerService.catchUp(toAccount);
 
-        if(fromAccount == toAccount) {
-            throw new RuntimeException("A transfer from an account to the same account is not allowed.");
+        // Only the two involved accounts are locked, so transfers between unrelated accounts run in parallel.
+        // The funds check has to happen under the lock, otherwise two concurrent debits could both pass it.
+        // A striped target is credited after the source lock is released and without a lock of its own, unless
+        // a journal needs the target's balance and journal sequence to move together.
+        boolean lockFreeCredit = journal == null && toAccount.hasStripedBalance();
+        TransactionModel transaction;
+        long journalTicket = 0;
+        if (lockFreeCredit) {
+            AccountLocks.INSTANCE.lock(fromHandle);
+        } else {
+            AccountLocks.INSTANCE.lock(fromHandle, toHandle);
         }
+        try {
+            if(fromAccount.getBalance().getMinorUnits() < debitedMinorUnits) {
+                return TransactionResult.rejected(RejectionReason.INSUFFICIENT_FUNDS);
+            }
+
+            transaction = new TransactionModel(
+                    idGenerator.nextId(),
+                    fromHandle,
+                    toHandle,
+                    creditedValue,
+                    LocalDate.now(),
+                    rates.getVersion()
+            );
+
+            fromAccount.getBalance().subtract(debitedMinorUnits);
+            fromAccount.getHistory().append(transaction);
+            recordRollup(fromAccount, transaction.getTimestamp(), debitedMinorUnits, 0);
 
-        if(fromAccount.getBalance().getCurrency() != toAccount.getBalance().getCurrency()) {
-            value = convertCurrency(value, fromAccount.getBalance().getCurrency(), toAccount.getBalance().getCurrency());
+            if (!lockFreeCredit) {
+                toAccount.getBalance().add(creditedMinorUnits);
+                toAccount.getHistory().append(transaction);
+                recordRollup(toAccount, transaction.getTimestamp(), 0, creditedMinorUnits);
+            }
+
+            // Journaled before the locks are released, so the record is buffered ahead of any later transfer that
+            // depends on it.
+            if (journal != null) {
+                long journalSequence = journal.reserveSequence();
+                fromAccount.setJournalSequence(journalSequence);
+                toAccount.setJournalSequence(journalSequence);
+                journalTicket = journal.appendTransfer(journalSequence, transaction, debitedMinorUnits, fromCurrency);
+            }
+        } finally {
+            if (lockFreeCredit) {
+                AccountLocks.INSTANCE.unlock(fromHandle);
+            } else {
+                AccountLocks.INSTANCE.unlock(fromHandle, toHandle);
+            }
         }
 
-        TransactionModel transaction = new TransactionModel(
-                UUID.randomUUID(),
-                fromAccountId,
-                toAccountId,
-                value,
-                LocalDate.now()
-        );
+        // Neither the balance, the history nor the rollups of a striped target take a lock for the credit.
+        if (lockFreeCredit) {
+            toAccount.getBalance().add(creditedMinorUnits);
+            toAccount.getHistory().appendConcurrently(transaction);
+            AccountsRepository.ROLLUP_INDEX.of(toAccount).recordConcurrently(transaction.getTimestamp(), 0, creditedMinorUnits, toAccount.getBalance());
+        }
 
-        fromAccount.getBalance().setAmount(fromAccount.getBalance().getAmount() - value.getAmount());
-        fromAccount.getTransactions().add(transaction);
+        // Waited for outside the account locks so the group commit's fsync never holds up other transfers.
+        if (journal != null) {
+            journal.awaitDurable(journalTicket);
+        }
+        return TransactionResult.accepted(transaction);
+    }
 
-        toAccount.getBalance().setAmount(toAccount.getBalance().getAmount() + value.getAmount());
-        toAccount.getTransactions().add(transaction);
+    private static String transferRejectionMessage(RejectionReason reason) {
+        return switch (reason) {
+            case UNKNOWN_ACCOUNT -> "Specified account does not exist";
+            case SAVINGS_RESTRICTION -> "You cannot perform the transfer functionality between the following types of accounts: " +
+                    "Savings Accounts => Checking Accounts, Savings Accounts => Savings Accounts";
+            case NEGATIVE_AMOUNT -> "The transfer amount should be greater than zero.";
+            case SAME_ACCOUNT -> "A transfer from an account to the same account is not allowed.";
+            case UNSUPPORTED_CURRENCY -> "Unsupported currency conversion";
+            case INSUFFICIENT_FUNDS -> "The result of a transaction must not lead to negative account balance.";
+            default -> "The transfer was rejected: " + reason;
+        };
+    }
 
-        return transaction;
+    // Applies the transfers in list order and reports each one at the same index of the returned list instead of
+    // throwing. Accounts are looked up once per batch and the account locks are taken once per chunk of
+    // BATCH_CHUNK_SIZE transfers, so transfers touching the same account are applied in the order given.
+    // With a journal, the whole batch is made durable by a single sync before returning.
+    public List<TransactionResult> transferBatch(List<TransferInstruction> instructions) {
+        long start = ServiceMetrics.TRANSFER_BATCH.start();
+        try {
+            return executeTransferBatch(instructions);
+        } finally {
+            ServiceMetrics.TRANSFER_BATCH.stop(start);
+        }
     }
 
-    private MoneyModel convertCurrency(MoneyModel amount, CurrencyType fromCurrency, CurrencyType toCurrency) {
-        double exchangeRate = getExchangeRate(fromCurrency, toCurrency);
-        double convertedAmount = amount.getAmount() * exchangeRate;
-        return new MoneyModel(convertedAmount, toCurrency);
+    private List<TransactionResult> executeTransferBatch(List<TransferInstruction> instructions) {
+        int size = instructions.size();
+        TransactionResult[] results = new TransactionResult[size];
+        AccountModel[] fromAccounts = new AccountModel[size];
+        AccountModel[] toAccounts = new AccountModel[size];
+        long[] debitedMinorUnits = new long[size];
+        long[] creditedMinorUnits = new long[size];
+        boolean[] lockFreeCredits = new boolean[size];
+        Map<String, AccountModel> accounts = new HashMap<>();
+        Set<AccountModel> sources = new HashSet<>();
+        RateTable rates = exchangeRates.getRates();
+
+        for (int i = 0; i < size; i++) {
+            TransferInstruction instruction = instructions.get(i);
+            AccountModel fromAccount = accounts.computeIfAbsent(instruction.getFromAccountId(), AccountsRepository.HANDLE_INDEX::get);
+            AccountModel toAccount = accounts.computeIfAbsent(instruction.getToAccountId(), AccountsRepository.HANDLE_INDEX::get);
+            RejectionReason rejection = validateTransfer(fromAccount, toAccount, instruction.getAmount());
+            if (rejection != null) {
+                results[i] = TransactionResult.rejected(rejection);
+                continue;
+            }
+            MoneyModel value = instruction.getAmount();
+            if (!rates.supports(value.getCurrency(), fromAccount.getBalance().getCurrency())
+                    || !rates.supports(value.getCurrency(), toAccount.getBalance().getCurrency())) {
+                results[i] = TransactionResult.rejected(RejectionReason.UNSUPPORTED_CURRENCY);
+                continue;
+            }
+            fromAccounts[i] = fromAccount;
+            toAccounts[i] = toAccount;
+            sources.add(fromAccount);
+            SavingsManagerService.catchUp(toAccount);
+            debitedMinorUnits[i] = rates.convertMinorUnits(value.getMinorUnits(), value.getCurrency(), fromAccount.getBalance().getCurrency());
+            creditedMinorUnits[i] = rates.convertMinorUnits(value.getMinorUnits(), value.getCurrency(), toAccount.getBalance().getCurrency());
+        }
+
+        // Credits to a striped target are applied after its chunk's locks are released, so they are only done
+        // without a lock when no later transfer of the batch has to see them in a funds check.
+        for (int i = 0; i < size; i++) {
+            lockFreeCredits[i] = results[i] == null && journal == null && toAccounts[i].hasStripedBalance() && !sources.contains(toAccounts[i]);
+        }
+
+        LocalDate today = LocalDate.now();
+        int[] stripes = new int[2 * BATCH_CHUNK_SIZE];
+        for (int chunkStart = 0; chunkStart < size; chunkStart += BATCH_CHUNK_SIZE) {
+            int chunkEnd = Math.min(size, chunkStart + BATCH_CHUNK_SIZE);
+            int stripeCount = 0;
+            for (int i = chunkStart; i < chunkEnd; i++) {
+                if (results[i] == null) {
+                    stripes[stripeCount++] = AccountLocks.INSTANCE.stripeOf(fromAccounts[i].getHandle());
+                    if (!lockFreeCredits[i]) {
+                        stripes[stripeCount++] = AccountLocks.INSTANCE.stripeOf(toAccounts[i].getHandle());
+                    }
+                }
+            }
+
+            int lockedStripes = AccountLocks.INSTANCE.lockStripes(stripes, stripeCount);
+            try {
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    if (results[i] != null) {
+                        continue;
+                    }
+                    AccountModel fromAccount = fromAccounts[i];
+                    AccountModel toAccount = toAccounts[i];
+                    if (fromAccount.getBalance().getMinorUnits() < debitedMinorUnits[i]) {
+                        results[i] = TransactionResult.rejected(RejectionReason.INSUFFICIENT_FUNDS);
+                        continue;
+                    }
+
+                    TransactionModel transaction = new TransactionModel(
+                            idGenerator.nextId(),
+                            fromAccount.getHandle(),
+                            toAccount.getHandle(),
+                            MoneyModel.ofMinorUnits(creditedMinorUnits[i], toAccount.getBalance().getCurrency()),
+                            today,
+                            rates.getVersion()
+                    );
+
+                    fromAccount.getBalance().subtract(debitedMinorUnits[i]);
+                    fromAccount.getHistory().append(transaction);
+                    recordRollup(fromAccount, today, debitedMinorUnits[i], 0);
+
+                    if (!lockFreeCredits[i]) {
+                        toAccount.getBalance().add(creditedMinorUnits[i]);
+                        toAccount.getHistory().append(transaction);
+                        recordRollup(toAccount, today, 0, creditedMinorUnits[i]);
+                    }
+
+                    if (journal != null) {
+                        long journalSequence = journal.reserveSequence();
+                        fromAccount.setJournalSequence(journalSequence);
+                        toAccount.setJournalSequence(journalSequence);
+                        journal.appendTransfer(journalSequence, transaction, debitedMinorUnits[i], fromAccount.getBalance().getCurrency());
+                    }
+                    results[i] = TransactionResult.accepted(transaction);
+                }
+            } finally {
+                AccountLocks.INSTANCE.unlockStripes(stripes, lockedStripes);
+            }
+
+            for (int i = chunkStart; i < chunkEnd; i++) {
+                if (lockFreeCredits[i] && results[i].isAccepted()) {
+                    toAccounts[i].getBalance().add(creditedMinorUnits[i]);
+                    toAccounts[i].getHistory().appendConcurrently(results[i].getTransaction());
+                    AccountsRepository.ROLLUP_INDEX.of(toAccounts[i]).recordConcurrently(today, 0, creditedMinorUnits[i], toAccounts[i].getBalance());
+                }
+            }
+        }
+
+        if (journal != null) {
+            journal.sync();
+        }
+        for (TransactionResult result : results) {
+            if (!result.isAccepted()) {
+                ServiceMetrics.TRANSFER_BATCH.reject(result.getRejectionReason());
+            }
+        }
+        return Arrays.asList(results);
     }
 
-    private double getExchangeRate(CurrencyType fromCurrency, CurrencyType toCurrency) {
-        if (fromCurrency == CurrencyType.EUR && toCurrency == CurrencyType.RON) {
-            return 4.98;
-        } else if (fromCurrency == CurrencyType.RON && toCurrency == CurrencyType.EUR) {
-            return 0.20;
+    // The checks made before any rate lookup or lock, shared by single, batch and partitioned transfers; null
+    // when the transfer may proceed.
+    static RejectionReason validateTransfer(AccountModel fromAccount, AccountModel toAccount, MoneyModel value) {
+        if (fromAccount == null || toAccount == null) {
+            return RejectionReason.UNKNOWN_ACCOUNT;
+        }
+        if (fromAccount.getAccountType() == AccountType.SAVINGS) {
+            return RejectionReason.SAVINGS_RESTRICTION;
+        }
+        if (value.getMinorUnits() < 0) {
+            return RejectionReason.NEGATIVE_AMOUNT;
+        }
+        if (fromAccount.equals(toAccount)) {
+            return RejectionReason.SAME_ACCOUNT;
         }
-        throw new IllegalArgumentException("Unsupported currency conversion");
+        return null;
+    }
+
+    // Called once the amounts have been applied to the account's balance, which becomes the day's closing balance.
+    static void recordRollup(AccountModel account, LocalDate date, long debitedMinorUnits, long creditedMinorUnits) {
+        AccountsRepository.ROLLUP_INDEX.of(account).record(date, debitedMinorUnits, creditedMinorUnits, account.getBalance());
     }
 
     public TransactionModel withdraw(String accountId, MoneyModel amount) {
-        AccountModel account = AccountsRepository.INSTANCE.get(accountId);
+        TransactionResult result = tryWithdraw(accountId, amount);
+        if (!result.isAccepted()) {
+            throw new RuntimeException(withdrawalRejectionMessage(result.getRejectionReason()));
+        }
+        return result.getTransaction();
+    }
 
-        if(account == null) {
-            throw new RuntimeException("Specified account does not exist.");
+    // Same as withdraw, but a rejected withdrawal is reported as a shared result instead of an exception.
+    public TransactionResult tryWithdraw(String accountId, MoneyModel amount) {
+        long start = ServiceMetrics.WITHDRAW.start();
+        try {
+            TransactionResult result = executeWithdraw(accountId, amount);
+            if (!result.isAccepted()) {
+                ServiceMetrics.WITHDRAW.reject(result.getRejectionReason());
+            }
+            return result;
+        } finally {
+            ServiceMetrics.WITHDRAW.stop(start);
         }
+    }
+
+    private TransactionResult executeWithdraw(String accountId, MoneyModel amount) {
+        AccountModel account = AccountsRepository.HANDLE_INDEX.get(accountId);
 
-        if(account.getBalance().getAmount() < amount.getAmount()) {
-            throw new RuntimeException("The result of a withdrawal must not lead to negative account balance.");
+        if(account == null) {
+            return TransactionResult.rejected(RejectionReason.UNKNOWN_ACCOUNT);
         }
 
-        if(amount.getAmount() < 0) {
-            throw new RuntimeException("The withdraw amount should be greater than zero.");
+        if(amount.getMinorUnits() < 0) {
+            return TransactionResult.rejected(RejectionReason.NEGATIVE_AMOUNT);
         }
 
         if(account.getBalance().getCurrency() != amount.getCurrency()) {
-            throw new RuntimeException("The withdrawal currency can't be different from the account's primary currency.");
+            return TransactionResult.rejected(RejectionReason.CURRENCY_MISMATCH);
         }
+        SavingsManagerService.catchUp(account);
+
+        TransactionModel transaction;
+        long journalTicket = 0;
+        int handle = account.getHandle();
+        AccountLocks.INSTANCE.lock(handle);
+        try {
+            if(account.getBalance().getMinorUnits() < amount.getMinorUnits()) {
+                return TransactionResult.rejected(RejectionReason.INSUFFICIENT_FUNDS);
+            }
+
+            transaction = new TransactionModel(
+                    idGenerator.nextId(),
+                    handle,
+                    handle,
+                    amount,
+                    LocalDate.now(),
+                    0
+            );
 
-        TransactionModel transaction = new TransactionModel(
-                UUID.randomUUID(),
-                accountId,
-                accountId,
-                amount,
-                LocalDate.now()
-        );
+            account.getBalance().subtract(amount.getMinorUnits());
+            recordRollup(account, transaction.getTimestamp(), amount.getMinorUnits(), 0);
 
-        account.getBalance().setAmount(account.getBalance().getAmount() - amount.getAmount());
+            if (journal != null) {
+                long journalSequence = journal.reserveSequence();
+                account.setJournalSequence(journalSequence);
+                journalTicket = journal.appendWithdrawal(journalSequence, transaction);
+            }
+        } finally {
+            AccountLocks.INSTANCE.unlock(handle);
+        }
 
-        return transaction;
+        if (journal != null) {
+            journal.awaitDurable(journalTicket);
+        }
+        return TransactionResult.accepted(transaction);
+    }
+
+    private static String withdrawalRejectionMessage(RejectionReason reason) {
+        return switch (reason) {
+            case UNKNOWN_ACCOUNT -> "Specified account does not exist.";
+            case NEGATIVE_AMOUNT -> "The withdraw amount should be greater than zero.";
+            case CURRENCY_MISMATCH -> "The withdrawal currency can't be different from the account's primary currency.";
+            case INSUFFICIENT_FUNDS -> "The result of a withdrawal must not lead to negative account balance.";
+            default -> "The withdrawal was rejected: " + reason;
+        };
     }
 
     public MoneyModel checkFunds(String accountId) {
-        if (!AccountsRepository.INSTANCE.exist(accountId)) {
-            throw new RuntimeException("Specified account does not exist");
+        long start = ServiceMetrics.CHECK_FUNDS.start();
+        try {
+            AccountModel account = AccountsRepository.HANDLE_INDEX.get(accountId);
+            if (account == null) {
+                ServiceMetrics.CHECK_FUNDS.reject(RejectionReason.UNKNOWN_ACCOUNT);
+                throw new RuntimeException("Specified account does not exist");
+            }
+            SavingsManagerService.catchUp(account);
+            return account.getBalance();
+        } finally {
+            ServiceMetrics.CHECK_FUNDS.stop(start);
         }
-        return AccountsRepository.INSTANCE.get(accountId).getBalance();
     }
 
     public List<TransactionModel> retrieveTransactions(String accountId) {
-        if (!AccountsRepository.INSTANCE.exist(accountId)) {
+        long start = ServiceMetrics.RETRIEVE_TRANSACTIONS.start();
+        try {
+            return historyOf(accountId).toList();
+        } finally {
+            ServiceMetrics.RETRIEVE_TRANSACTIONS.stop(start);
+        }
+    }
+
+    // One page of the account's history, oldest first; pass 0 as the first cursor and then page.getNextCursor().
+    // from and to are inclusive and either may be null.
+    public TransactionPage retrieveTransactions(String accountId, LocalDate from, LocalDate to, long cursor, int pageSize) {
+        long start = ServiceMetrics.RETRIEVE_TRANSACTIONS.start();
+        try {
+            return historyOf(accountId).page(from, to, cursor, pageSize);
+        } finally {
+            ServiceMetrics.RETRIEVE_TRANSACTIONS.stop(start);
+        }
+    }
+
+    // Debits, credits and number of transfers and withdrawals of the account within [from, to] (either may be
+    // null), summed from its daily rollups rather than its history. For an account restored from a snapshot or
+    // an earlier run's mapped store, a from before its rollups start is rejected and a null from starts there.
+    public Turnover turnover(String accountId, LocalDate from, LocalDate to) {
+        long start = ServiceMetrics.ROLLUP_QUERY.start();
+        try {
+            AccountModel account = rollupAccount(accountId);
+            DailyRollups rollups = AccountsRepository.ROLLUP_INDEX.find(account);
+            if (rollups == null) {
+                MoneyModel zero = MoneyModel.ofMinorUnits(0, account.getBalance().getCurrency());
+                return new Turnover(from, to, zero, zero, 0);
+            }
+            return rollups.turnover(from, to);
+        } finally {
+            ServiceMetrics.ROLLUP_QUERY.stop(start);
+        }
+    }
+
+    // The account's days with transfers or withdrawals within [from, to] (either may be null), oldest first.
+    public List<DailyRollup> dailyRollups(String accountId, LocalDate from, LocalDate to) {
+        long start = ServiceMetrics.ROLLUP_QUERY.start();
+        try {
+            DailyRollups rollups = AccountsRepository.ROLLUP_INDEX.find(rollupAccount(accountId));
+            return rollups == null ? List.of() : rollups.between(from, to);
+        } finally {
+            ServiceMetrics.ROLLUP_QUERY.stop(start);
+        }
+    }
+
+    // The account's balance at the end of date: the closing balance of the last day with transactions on or
+    // before it, found without reading the history. Today and later dates, and accounts without recorded
+    // transactions, get the current balance. Interest capitalized after that day's last transaction is not included.
+    // Dates before a restored account's rollups start are rejected.
+    public MoneyModel balanceAsOf(String accountId, LocalDate date) {
+        long start = ServiceMetrics.ROLLUP_QUERY.start();
+        try {
+            AccountModel account = rollupAccount(accountId);
+            DailyRollups rollups = AccountsRepository.ROLLUP_INDEX.find(account);
+            MoneyModel balance = rollups == null || !date.isBefore(LocalDate.now()) ? null : rollups.balanceAsOf(date);
+            if (balance == null) {
+                SavingsManagerService.catchUp(account);
+                return MoneyModel.ofMinorUnits(account.getBalance().getMinorUnits(), account.getBalance().getCurrency());
+            }
+            return balance;
+        } finally {
+            ServiceMetrics.ROLLUP_QUERY.stop(start);
+        }
+    }
+
+    private AccountModel rollupAccount(String accountId) {
+        AccountModel account = AccountsRepository.HANDLE_INDEX.get(accountId);
+        if (account == null) {
+            ServiceMetrics.ROLLUP_QUERY.reject(RejectionReason.UNKNOWN_ACCOUNT);
+            throw new RuntimeException("Specified account does not exist");
+        }
+        return account;
+    }
+
+    private TransactionHistory historyOf(String accountId) {
+        AccountModel account = AccountsRepository.HANDLE_INDEX.get(accountId);
+        if (account == null) {
+            ServiceMetrics.RETRIEVE_TRANSACTIONS.reject(RejectionReason.UNKNOWN_ACCOUNT);
             throw new RuntimeException("Specified account does not exist");
         }
-        return new ArrayList<>(AccountsRepository.INSTANCE.get(accountId).getTransactions());
+        SavingsManagerService.catchUp(account);
+        return account.getHistory();
     }
 
 }
@@ -0,0 +1,68 @@
+package main.java.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Bounded ring buffer with any number of producers and a single consumer. Each slot carries a sequence
+// number telling whose turn it is: producers claim a position with one CAS on the tail and publish the
+// command by advancing the slot's sequence, and the consumer frees the slot by advancing it once more, one
+// lap ahead. No locks, and no allocation once the ring exists.
+public class CommandRing<T> {
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    // capacity must be a power of two.
+    public CommandRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The ring capacity must be a power of two");
+        }
+        mask = capacity - 1;
+        slots = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // Returns false when the ring is full.
+    public boolean offer(T command) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long turn = sequences.getAcquire(index) - position;
+            if (turn == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.setPlain(index, command);
+                    // A volatile store, so a producer that checks afterwards whether the consumer is parked
+                    // cannot miss a consumer that checked the ring before parking.
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (turn < 0) {
+                return false;
+            }
+        }
+    }
+
+    // Consumer thread only; null when the ring is empty.
+    public T poll() {
+        int index = (int) head & mask;
+        if (sequences.getAcquire(index) != head + 1) {
+            return null;
+        }
+        T command = slots.getPlain(index);
+        slots.setPlain(index, null);
+        sequences.setRelease(index, head + mask + 1);
+        head++;
+        return command;
+    }
+
+    // Consumer thread only.
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
@@ -2,22 +2,28 @@ package main.java.utils;
 
 import main.java.domain.CurrencyType;
 import main.java.domain.MoneyModel;
+import main.java.services.ExchangeRateService;
 
 public class MoneyUtils {
 
     public static MoneyModel convert(MoneyModel money, CurrencyType toCurrency) {
-        double conversionRate = getConversionRate(money.getCurrency(), toCurrency);
-        double convertedAmount = money.getAmount() * conversionRate;
-        return new MoneyModel(convertedAmount, toCurrency);
+        return MoneyModel.ofMinorUnits(convertMinorUnits(money.getMinorUnits(), money.getCurrency(), toCurrency), toCurrency);
     }
 
-    public static double getConversionRate(CurrencyType fromCurrency, CurrencyType toCurrency) {
-        if (fromCurrency == CurrencyType.RON && toCurrency == CurrencyType.EUR) {
-            return 0.2;
-        }
-        if (fromCurrency == CurrencyType.EUR && toCurrency == CurrencyType.RON) {
-            return 4.98;
+    public static long convertMinorUnits(long minorUnits, CurrencyType fromCurrency, CurrencyType toCurrency) {
+        return ExchangeRateService.INSTANCE.getRates().convertMinorUnits(minorUnits, fromCurrency, toCurrency);
+    }
+
+    public static long convertMinorUnits(long minorUnits, CurrencyType fromCurrency, CurrencyType toCurrency, double rate) {
+        if (fromCurrency == toCurrency) {
+            return minorUnits;
         }
-        return 1.0;
+        double scaledRate = rate * toCurrency.getMinorUnitsPerMajor() / fromCurrency.getMinorUnitsPerMajor();
+        return (long) Math.rint(minorUnits * scaledRate);
+    }
+
+    // Throws IllegalArgumentException for pairs without a rate instead of silently converting 1:1.
+    public static double getConversionRate(CurrencyType fromCurrency, CurrencyType toCurrency) {
+        return ExchangeRateService.INSTANCE.getRates().getRate(fromCurrency, toCurrency);
     }
 }
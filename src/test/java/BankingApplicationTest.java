@@ -2,13 +2,19 @@ package test.java;
 
 import main.java.domain.*;
 import main.java.repository.AccountsRepository;
+import main.java.services.CapitalizationReport;
 import main.java.services.SavingsManagerService;
 import main.java.services.TransactionManagerService;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 import static main.java.seed.AccountsSeedData.savingsAccountA;
 import static main.java.seed.AccountsSeedData.savingsAccountB;
@@ -117,6 +123,31 @@ public class BankingApplicationTest {
         AccountsRepository.INSTANCE.remove(toAccountRON.getId());
     }
 
+    @Test
+    public void repeatedSmallTransfersDoNotDrift() {
+        for (int i = 0; i < 1000; i++) {
+            transactionManagerService.transfer(fromAccountId, toAccountId, new MoneyModel(0.1, CurrencyType.EUR));
+        }
+
+        assertEquals(90000, AccountsRepository.INSTANCE.get(fromAccountId).getBalance().getMinorUnits());
+        assertEquals(60000, AccountsRepository.INSTANCE.get(toAccountId).getBalance().getMinorUnits());
+    }
+
+    @Test
+    public void transferWithDifferentCurrenciesDebitsSourceCurrency() {
+        AccountModel toAccountRON = new CheckingAccountModel("toAccountRON", new MoneyModel(500, CurrencyType.RON), new ArrayList<>(),
+                card3);
+        AccountsRepository.INSTANCE.add(toAccountRON.getId(), toAccountRON);
+
+        TransactionModel transaction = transactionManagerService.transfer(fromAccountId, toAccountRON.getId(), new MoneyModel(10, CurrencyType.EUR));
+
+        assertEquals(99000, AccountsRepository.INSTANCE.get(fromAccountId).getBalance().getMinorUnits());
+        assertEquals(54980, toAccountRON.getBalance().getMinorUnits());
+        assertEquals(CurrencyType.RON, transaction.getAmount().getCurrency());
+
+        AccountsRepository.INSTANCE.remove(toAccountRON.getId());
+    }
+
     @Test
     public void successfulWithdrawal() {
         double initialAmount = AccountsRepository.INSTANCE.get(fromAccountId).getBalance().getAmount();
@@ -182,4 +213,192 @@ public class BankingApplicationTest {
                 0.01);
     }
 
+    @Test
+    public void parallelCapitalizationCoversEverySavingsAccount() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 1000; i++) {
+            CapitalizationFrequency frequency = i % 2 == 0 ? CapitalizationFrequency.MONTHLY : CapitalizationFrequency.QUARTERLY;
+            LocalDate lastInterestAppliedDate = frequency == CapitalizationFrequency.MONTHLY ? today : today.minusMonths(2);
+            AccountModel account = new SavingsAccountModel("savings" + i, new MoneyModel(1000, CurrencyType.RON), new ArrayList<>(),
+                    InterestRate.ONE_MONTH_ACCOUNT, frequency, lastInterestAppliedDate);
+            AccountsRepository.INSTANCE.add(account.getId(), account);
+        }
+
+        CapitalizationReport report = new SavingsManagerService(new ForkJoinPool(4), 16).passTime();
+
+        assertEquals(1000, report.getAccountsScanned());
+        assertEquals(1000, report.getAccountsCapitalized());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(104750, AccountsRepository.INSTANCE.get("savings" + i).getBalance().getMinorUnits());
+        }
+    }
+
+    @Test
+    public void dueIndexTracksNextCapitalizationMonth() {
+        LocalDate today = LocalDate.now();
+        SavingsAccountModel quarterly = new SavingsAccountModel("quarterly", new MoneyModel(1000, CurrencyType.RON), new ArrayList<>(),
+                InterestRate.THREE_MONTH_ACCOUNT, CapitalizationFrequency.QUARTERLY, today);
+        AccountsRepository.INSTANCE.add(quarterly.getId(), quarterly);
+
+        YearMonth dueMonth = YearMonth.from(today).plusMonths(3);
+        assertTrue(AccountsRepository.INTEREST_DUE_INDEX.getDueAccounts(dueMonth).contains(quarterly));
+
+        quarterly.setInterestFrequency(CapitalizationFrequency.MONTHLY);
+        assertFalse(AccountsRepository.INTEREST_DUE_INDEX.getDueAccounts(dueMonth).contains(quarterly));
+        assertTrue(AccountsRepository.INTEREST_DUE_INDEX.getDueAccounts(YearMonth.from(today).plusMonths(1)).contains(quarterly));
+
+        CapitalizationReport report = savingsManagerService.passTime();
+        assertEquals(1, report.getAccountsScanned());
+        assertTrue(AccountsRepository.INTEREST_DUE_INDEX.getDueAccounts(YearMonth.from(today).plusMonths(2)).contains(quarterly));
+
+        AccountsRepository.INSTANCE.remove(quarterly.getId());
+        assertFalse(AccountsRepository.INTEREST_DUE_INDEX.getDueAccounts(YearMonth.from(today).plusMonths(2)).contains(quarterly));
+    }
+
+    @Test
+    public void transferBatchReportsEachInstructionInOrder() {
+        List<TransactionResult> results = transactionManagerService.transferBatch(List.of(
+                new TransferInstruction(fromAccountId, toAccountId, new MoneyModel(1000, CurrencyType.EUR)),
+                new TransferInstruction(fromAccountId, toAccountId, new MoneyModel(1, CurrencyType.EUR)),
+                new TransferInstruction(toAccountId, fromAccountId, new MoneyModel(1200, CurrencyType.EUR)),
+                new TransferInstruction("missing", toAccountId, new MoneyModel(1, CurrencyType.EUR)),
+                new TransferInstruction(toAccountId, toAccountId, new MoneyModel(1, CurrencyType.EUR)),
+                new TransferInstruction(fromAccountId, toAccountId, new MoneyModel(-1, CurrencyType.EUR))
+        ));
+
+        assertTrue(results.get(0).isAccepted());
+        assertEquals(RejectionReason.INSUFFICIENT_FUNDS, results.get(1).getRejectionReason());
+        assertTrue(results.get(2).isAccepted());
+        assertEquals(RejectionReason.UNKNOWN_ACCOUNT, results.get(3).getRejectionReason());
+        assertEquals(RejectionReason.SAME_ACCOUNT, results.get(4).getRejectionReason());
+        assertEquals(RejectionReason.NEGATIVE_AMOUNT, results.get(5).getRejectionReason());
+
+        assertEquals(1200, AccountsRepository.INSTANCE.get(fromAccountId).getBalance().getAmount(), 0);
+        assertEquals(300, AccountsRepository.INSTANCE.get(toAccountId).getBalance().getAmount(), 0);
+        assertEquals(2, AccountsRepository.INSTANCE.get(fromAccountId).getHistory().size());
+    }
+
+    @Test
+    public void tryTransferAndTryWithdrawReportRejectionsWithoutThrowing() {
+        assertEquals(RejectionReason.INSUFFICIENT_FUNDS,
+                transactionManagerService.tryTransfer(fromAccountId, toAccountId, new MoneyModel(2000, CurrencyType.EUR)).getRejectionReason());
+        assertEquals(RejectionReason.UNKNOWN_ACCOUNT,
+                transactionManagerService.tryTransfer("missing", toAccountId, new MoneyModel(1, CurrencyType.EUR)).getRejectionReason());
+        assertEquals(RejectionReason.CURRENCY_MISMATCH,
+                transactionManagerService.tryWithdraw(fromAccountId, new MoneyModel(1, CurrencyType.RON)).getRejectionReason());
+        assertEquals(RejectionReason.INSUFFICIENT_FUNDS,
+                transactionManagerService.tryWithdraw(fromAccountId, new MoneyModel(1001, CurrencyType.EUR)).getRejectionReason());
+
+        TransactionResult transfer = transactionManagerService.tryTransfer(fromAccountId, toAccountId, new MoneyModel(100, CurrencyType.EUR));
+        TransactionResult withdrawal = transactionManagerService.tryWithdraw(fromAccountId, new MoneyModel(100, CurrencyType.EUR));
+
+        assertTrue(transfer.isAccepted());
+        assertTrue(withdrawal.isAccepted());
+        assertEquals(800, AccountsRepository.INSTANCE.get(fromAccountId).getBalance().getAmount(), 0);
+        assertEquals(600, AccountsRepository.INSTANCE.get(toAccountId).getBalance().getAmount(), 0);
+    }
+
+    @Test
+    public void transferByHandleRecordsTheExternalIds() {
+        int fromHandle = AccountIdDictionary.INSTANCE.find(fromAccountId);
+        int toHandle = AccountIdDictionary.INSTANCE.find(toAccountId);
+        assertSame(AccountsRepository.INSTANCE.get(fromAccountId), AccountsRepository.HANDLE_INDEX.get(fromHandle));
+
+        TransactionResult transfer = transactionManagerService.tryTransfer(fromHandle, toHandle, new MoneyModel(100, CurrencyType.EUR));
+
+        assertTrue(transfer.isAccepted());
+        assertEquals(fromAccountId, transfer.getTransaction().getFrom());
+        assertEquals(toAccountId, transfer.getTransaction().getTo());
+        assertEquals(600, AccountsRepository.INSTANCE.get(toAccountId).getBalance().getAmount(), 0);
+
+        AccountsRepository.INSTANCE.remove(toAccountId);
+        assertNull(AccountsRepository.HANDLE_INDEX.get(toHandle));
+        assertEquals(RejectionReason.UNKNOWN_ACCOUNT,
+                transactionManagerService.tryTransfer(fromHandle, toHandle, new MoneyModel(1, CurrencyType.EUR)).getRejectionReason());
+    }
+
+    @Test
+    public void removedAccountsGiveTheirHandlesBack() {
+        int registered = AccountIdDictionary.INSTANCE.size();
+        for (int i = 0; i < 1000; i++) {
+            String id = "churned" + i;
+            AccountsRepository.INSTANCE.add(id, new CheckingAccountModel(id, new MoneyModel(10, CurrencyType.EUR), new ArrayList<>(), null));
+            assertTrue(transactionManagerService.tryWithdraw(id, new MoneyModel(1, CurrencyType.EUR)).isAccepted());
+            AccountsRepository.INSTANCE.remove(id);
+        }
+
+        assertEquals(registered, AccountIdDictionary.INSTANCE.size());
+        assertEquals(-1, AccountIdDictionary.INSTANCE.find("churned0"));
+        assertNull(AccountsRepository.HANDLE_INDEX.get("churned0"));
+    }
+
+    @Test
+    public void aTransactionWithoutAnAccountIdKeepsItNull() {
+        TransactionModel transaction = new TransactionModel(UUID.randomUUID(), null, toAccountId, new MoneyModel(1, CurrencyType.EUR), LocalDate.now());
+
+        assertNull(transaction.getFrom());
+        assertEquals(toAccountId, transaction.getTo());
+    }
+
+    @Test
+    public void transfersAndWithdrawalsAreRolledUpByDay() {
+        LocalDate today = LocalDate.now();
+        transactionManagerService.transfer(fromAccountId, toAccountId, new MoneyModel(100, CurrencyType.EUR));
+        transactionManagerService.transfer(toAccountId, fromAccountId, new MoneyModel(30, CurrencyType.EUR));
+        transactionManagerService.withdraw(fromAccountId, new MoneyModel(50, CurrencyType.EUR));
+
+        Turnover turnover = transactionManagerService.turnover(fromAccountId, today.minusDays(1), today);
+        assertEquals(150, turnover.getDebits().getAmount(), 0);
+        assertEquals(30, turnover.getCredits().getAmount(), 0);
+        assertEquals(3, turnover.getTransactionCount());
+        assertEquals(0, transactionManagerService.turnover(fromAccountId, null, today.minusDays(1)).getTransactionCount());
+
+        List<DailyRollup> days = transactionManagerService.dailyRollups(toAccountId, null, null);
+        assertEquals(1, days.size());
+        assertEquals(today, days.get(0).getDate());
+        assertEquals(570, days.get(0).getClosingBalance().getAmount(), 0);
+
+        assertEquals(1000, transactionManagerService.balanceAsOf(fromAccountId, today.minusDays(1)).getAmount(), 0);
+        assertEquals(880, transactionManagerService.balanceAsOf(fromAccountId, today).getAmount(), 0);
+    }
+
+    @Test
+    public void passTimeOverSeveralMonthsMatchesMonthlyRuns() {
+        for (boolean useDueIndex : new boolean[]{true, false}) {
+            seedSavingsBook();
+            SavingsManagerService monthly = new SavingsManagerService(new ForkJoinPool(2), 8, useDueIndex);
+            CapitalizationReport lastMonth = null;
+            for (int month = 0; month < 14; month++) {
+                lastMonth = monthly.passTime();
+            }
+            List<String> expected = describeSavingsBook();
+
+            seedSavingsBook();
+            CapitalizationReport report = new SavingsManagerService(new ForkJoinPool(2), 8, useDueIndex).passTime(14);
+
+            assertEquals(expected, describeSavingsBook());
+            assertEquals(lastMonth.getInterestDate(), report.getInterestDate());
+        }
+    }
+
+    private void seedSavingsBook() {
+        clearAccountsRepository();
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 200; i++) {
+            CapitalizationFrequency frequency = random.nextBoolean() ? CapitalizationFrequency.MONTHLY : CapitalizationFrequency.QUARTERLY;
+            AccountModel account = new SavingsAccountModel("book" + i, new MoneyModel(random.nextInt(1, 1_000_000) / 100.0, CurrencyType.RON),
+                    new ArrayList<>(), InterestRate.SIX_MONTH_ACCOUNT, frequency, today.minusMonths(random.nextInt(0, 5)));
+            AccountsRepository.INSTANCE.add(account.getId(), account);
+        }
+    }
+
+    private List<String> describeSavingsBook() {
+        List<String> book = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            SavingsAccountModel account = (SavingsAccountModel) AccountsRepository.INSTANCE.get("book" + i);
+            book.add(account.getBalance().getMinorUnits() + " " + account.getLastInterestAppliedDate());
+        }
+        return book;
+    }
 }
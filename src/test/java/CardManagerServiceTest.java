@@ -0,0 +1,156 @@
+package test.java;
+
+import main.java.domain.*;
+import main.java.repository.AccountsRepository;
+import main.java.repository.CardsRepository;
+import main.java.services.CardManagerService;
+import main.java.services.ExchangeRateService;
+import main.java.services.TransactionManagerService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CardManagerServiceTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    private CardModel card;
+
+    @Before
+    public void setUp() {
+        for (AccountModel account : AccountsRepository.INSTANCE.getAll()) {
+            AccountsRepository.INSTANCE.remove(account.getId());
+        }
+        card = new CardModel(1111222233334444L, "Card Holder", 111, TODAY.plusYears(2), TODAY.minusYears(1), true, true, 500, 1000);
+        AccountsRepository.INSTANCE.add("holder", new CheckingAccountModel("holder", new MoneyModel(100_000, CurrencyType.RON), new ArrayList<>(), card));
+        AccountsRepository.INSTANCE.add("merchant", new CheckingAccountModel("merchant", new MoneyModel(0, CurrencyType.EUR), new ArrayList<>(), null));
+    }
+
+    private static CardManagerService serviceOn(LocalDate date) {
+        Clock clock = Clock.fixed(date.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        return new CardManagerService(new TransactionManagerService(), ExchangeRateService.INSTANCE, clock);
+    }
+
+    private static void assertRejected(Runnable operation) {
+        try {
+            operation.run();
+        } catch (RuntimeException expected) {
+            return;
+        }
+        fail("The operation should have been rejected");
+    }
+
+    @Test
+    public void dailyLimitsRollOverAtTheDayBoundary() {
+        CardManagerService today = serviceOn(TODAY);
+        today.withdraw("holder", new MoneyModel(300, CurrencyType.RON));
+        today.withdraw("holder", new MoneyModel(200, CurrencyType.RON));
+        assertRejected(() -> today.withdraw("holder", new MoneyModel(0.01, CurrencyType.RON)));
+
+        // 200 EUR is 996 RON, counted against the 1000 RON transaction limit.
+        today.pay("holder", "merchant", new MoneyModel(200, CurrencyType.EUR));
+        assertRejected(() -> today.pay("holder", "merchant", new MoneyModel(1, CurrencyType.EUR)));
+        assertEquals(99600, card.getUsage().getSpentOn(TODAY.toEpochDay()));
+
+        CardManagerService tomorrow = serviceOn(TODAY.plusDays(1));
+        tomorrow.withdraw("holder", new MoneyModel(500, CurrencyType.RON));
+        assertEquals(50000, card.getUsage().getWithdrawnOn(TODAY.plusDays(1).toEpochDay()));
+        assertEquals(100_000 - 500 - 996 - 500, AccountsRepository.INSTANCE.get("holder").getBalance().getAmount(), 0.001);
+    }
+
+    @Test
+    public void inactiveAndExpiredCardsAreRejected() {
+        assertRejected(() -> serviceOn(TODAY.plusYears(3)).withdraw("holder", new MoneyModel(1, CurrencyType.RON)));
+
+        card.setActive(false);
+        assertRejected(() -> serviceOn(TODAY).withdraw("holder", new MoneyModel(1, CurrencyType.RON)));
+        assertRejected(() -> serviceOn(TODAY).pay("merchant", "holder", new MoneyModel(1, CurrencyType.EUR)));
+        assertEquals(0, card.getUsage().getWithdrawnOn(TODAY.toEpochDay()));
+    }
+
+    @Test
+    public void failedWithdrawalsGiveTheirReservationBack() {
+        AccountsRepository.INSTANCE.get("holder").getBalance().setMinorUnits(10000);
+        CardManagerService service = serviceOn(TODAY);
+
+        assertRejected(() -> service.withdraw("holder", new MoneyModel(400, CurrencyType.RON)));
+        assertEquals(0, card.getUsage().getWithdrawnOn(TODAY.toEpochDay()));
+        service.withdraw("holder", new MoneyModel(100, CurrencyType.RON));
+    }
+
+    @Test
+    public void concurrentAuthorizationsNeverExceedTheLimit() throws Exception {
+        CardManagerService service = serviceOn(TODAY);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(executor.submit(() -> {
+                int accepted = 0;
+                for (int i = 0; i < 1000; i++) {
+                    try {
+                        service.withdraw("holder", new MoneyModel(0.07, CurrencyType.RON));
+                        accepted++;
+                    } catch (RuntimeException ignored) {
+                    }
+                }
+                return accepted;
+            }));
+        }
+        int accepted = 0;
+        for (Future<Integer> result : results) {
+            accepted += result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50000 / 7, accepted);
+        assertEquals(accepted * 7L, card.getUsage().getWithdrawnOn(TODAY.toEpochDay()));
+    }
+
+    @Test
+    public void aRequestDatedBeforeTheCounterNeverRollsItBack() {
+        // A request for tomorrow rolls the counter over before a request that read the clock just before midnight.
+        serviceOn(TODAY.plusDays(1)).withdraw("holder", new MoneyModel(400, CurrencyType.RON));
+        assertRejected(() -> serviceOn(TODAY).withdraw("holder", new MoneyModel(100, CurrencyType.RON)));
+
+        assertEquals(40_000, card.getUsage().getWithdrawnOn(TODAY.plusDays(1).toEpochDay()));
+        assertRejected(() -> serviceOn(TODAY.plusDays(1)).withdraw("holder", new MoneyModel(200, CurrencyType.RON)));
+        assertEquals(99_600, AccountsRepository.INSTANCE.get("holder").getBalance().getAmount(), 0);
+    }
+
+    @Test
+    public void cardNumbersResolveToTheirAccountUntilItIsRemoved() {
+        assertEquals("holder", CardsRepository.INSTANCE.getAccount(card.getCardNumber()).getId());
+        assertSame(card, CardsRepository.INSTANCE.getCard(card.getCardNumber()));
+
+        serviceOn(TODAY).withdrawWithCard(card.getCardNumber(), new MoneyModel(50, CurrencyType.RON));
+        assertEquals(99_950, AccountsRepository.INSTANCE.get("holder").getBalance().getAmount(), 0);
+
+        AccountsRepository.INSTANCE.remove("holder");
+        assertFalse(CardsRepository.INSTANCE.exist(card.getCardNumber()));
+        assertRejected(() -> serviceOn(TODAY).withdrawWithCard(card.getCardNumber(), new MoneyModel(1, CurrencyType.RON)));
+    }
+
+    @Test
+    public void cardNumberZeroIsIndexedLikeAnyOther() {
+        CardModel zero = new CardModel(0L, "Zero Holder", 222, TODAY.plusYears(2), TODAY.minusYears(1), true, true, 500, 1000);
+        AccountsRepository.INSTANCE.add("zero", new CheckingAccountModel("zero", new MoneyModel(1_000, CurrencyType.RON), new ArrayList<>(), zero));
+
+        assertEquals("zero", CardsRepository.INSTANCE.getAccount(0).getId());
+        serviceOn(TODAY).withdrawWithCard(0, new MoneyModel(10, CurrencyType.RON));
+        assertEquals(990, AccountsRepository.INSTANCE.get("zero").getBalance().getAmount(), 0);
+
+        AccountsRepository.INSTANCE.remove("zero");
+        assertFalse(CardsRepository.INSTANCE.exist(0));
+    }
+}
@@ -0,0 +1,63 @@
+package test.java;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.DailyRollup;
+import main.java.domain.DailyRollups;
+import main.java.domain.MoneyModel;
+import main.java.domain.Turnover;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DailyRollupsTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Test
+    public void rangesAndBalancesAreAnsweredFromTheDays() {
+        DailyRollups rollups = new DailyRollups(CurrencyType.RON);
+        MoneyModel balance = MoneyModel.ofMinorUnits(10_000, CurrencyType.RON);
+        // A debit of 100 and a credit of 250 on every tenth day, starting on START.
+        for (int day = 0; day < 100; day += 10) {
+            balance.subtract(100);
+            rollups.record(START.plusDays(day), 100, 0, balance);
+            balance.add(250);
+            rollups.record(START.plusDays(day), 0, 250, balance);
+        }
+
+        assertEquals(10, rollups.size());
+        List<DailyRollup> days = rollups.between(START.plusDays(15), START.plusDays(40));
+        assertEquals(3, days.size());
+        assertEquals(START.plusDays(20), days.get(0).getDate());
+        assertEquals(10_000 + 3 * 150, days.get(0).getClosingBalance().getMinorUnits());
+        assertEquals(2, days.get(0).getTransactionCount());
+
+        Turnover turnover = rollups.turnover(START.plusDays(15), null);
+        assertEquals(8 * 100, turnover.getDebits().getMinorUnits());
+        assertEquals(8 * 250, turnover.getCredits().getMinorUnits());
+        assertEquals(16, turnover.getTransactionCount());
+
+        assertEquals(10_000, rollups.balanceAsOf(START.minusDays(1)).getMinorUnits());
+        assertEquals(10_150, rollups.balanceAsOf(START).getMinorUnits());
+        assertEquals(10_300, rollups.balanceAsOf(START.plusDays(19)).getMinorUnits());
+        assertEquals(11_500, rollups.balanceAsOf(START.plusDays(1000)).getMinorUnits());
+    }
+
+    @Test
+    public void aLateRecordIsFoldedIntoTheLastDay() {
+        DailyRollups rollups = new DailyRollups(CurrencyType.EUR);
+        assertNull(rollups.balanceAsOf(START));
+
+        rollups.record(START.plusDays(1), 0, 500, MoneyModel.ofMinorUnits(500, CurrencyType.EUR));
+        rollups.record(START, 200, 0, MoneyModel.ofMinorUnits(300, CurrencyType.EUR));
+
+        List<DailyRollup> days = rollups.between(null, null);
+        assertEquals(1, days.size());
+        assertEquals(START.plusDays(1), days.get(0).getDate());
+        assertEquals(200, days.get(0).getDebits().getMinorUnits());
+        assertEquals(300, days.get(0).getClosingBalance().getMinorUnits());
+        assertEquals(0, rollups.balanceAsOf(START).getMinorUnits());
+    }
+}
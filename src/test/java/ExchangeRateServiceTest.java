@@ -0,0 +1,72 @@
+package test.java;
+
+import main.java.domain.*;
+import main.java.repository.AccountsRepository;
+import main.java.services.ExchangeRateService;
+import main.java.services.FileExchangeRateProvider;
+import main.java.services.FixedExchangeRateProvider;
+import main.java.services.TransactionManagerService;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static main.java.seed.CardsSeedData.card1;
+import static main.java.seed.CardsSeedData.card2;
+import static org.junit.Assert.*;
+
+public class ExchangeRateServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void fileRatesAreVersionedAndInvertedWhenOnlyOneDirectionIsQuoted() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("rates.txt");
+        Files.writeString(file, "# from to rate\nEUR RON 5.00\n\nUSD EUR 0.90\n");
+        ExchangeRateService service = new ExchangeRateService(new FileExchangeRateProvider(file));
+
+        RateTable rates = service.getRates();
+        assertEquals(Files.getLastModifiedTime(file).toMillis(), rates.getVersion());
+        assertEquals(5.00, rates.getRate(CurrencyType.EUR, CurrencyType.RON), 0);
+        assertEquals(0.20, rates.getRate(CurrencyType.RON, CurrencyType.EUR), 1e-12);
+        assertEquals(2000, rates.convertMinorUnits(10000, CurrencyType.RON, CurrencyType.EUR));
+        assertFalse(rates.supports(CurrencyType.GBP, CurrencyType.RON));
+
+        // A restart over the same file comes back with the same version.
+        assertEquals(rates.getVersion(), new ExchangeRateService(new FileExchangeRateProvider(file)).getRates().getVersion());
+
+        Files.writeString(file, "EUR RON 4.00\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(rates.getVersion() + 1000));
+        RateTable refreshed = service.refresh();
+        assertEquals(rates.getVersion() + 1000, refreshed.getVersion());
+        assertSame(refreshed, service.getRates());
+        assertEquals(4.00, refreshed.getRate(CurrencyType.EUR, CurrencyType.RON), 0);
+        assertEquals(5.00, rates.getRate(CurrencyType.EUR, CurrencyType.RON), 0);
+    }
+
+    @Test
+    public void transfersRecordTheRateVersionTheyWereConvertedWith() {
+        for (AccountModel account : AccountsRepository.INSTANCE.getAll()) {
+            AccountsRepository.INSTANCE.remove(account.getId());
+        }
+        AccountsRepository.INSTANCE.add("usd", new CheckingAccountModel("usd", new MoneyModel(100, CurrencyType.USD), new ArrayList<>(), card1));
+        AccountsRepository.INSTANCE.add("ron", new CheckingAccountModel("ron", new MoneyModel(0, CurrencyType.RON), new ArrayList<>(), card2));
+
+        ExchangeRateService rates = new ExchangeRateService(new FixedExchangeRateProvider(1, List.of(new ExchangeRateQuote(CurrencyType.USD, CurrencyType.RON, 4.50))));
+        rates.update(new RateTable(2, List.of(new ExchangeRateQuote(CurrencyType.USD, CurrencyType.RON, 4.60))));
+        TransactionManagerService service = new TransactionManagerService(null, rates);
+
+        TransactionModel transaction = service.transfer("usd", "ron", new MoneyModel(10, CurrencyType.USD));
+
+        assertEquals(2, transaction.getRateVersion());
+        assertEquals(4600, transaction.getAmount().getMinorUnits());
+        assertEquals(90, AccountsRepository.INSTANCE.get("usd").getBalance().getAmount(), 0);
+        assertEquals(46, AccountsRepository.INSTANCE.get("ron").getBalance().getAmount(), 0);
+    }
+}
@@ -0,0 +1,107 @@
+package test.java;
+
+import main.java.domain.*;
+import main.java.repository.AccountsRepository;
+import main.java.services.SavingsManagerService;
+import main.java.services.TransactionManagerService;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static main.java.seed.CardsSeedData.card1;
+import static org.junit.Assert.*;
+
+public class LazyCapitalizationTest {
+
+    private static final int SAVINGS_ACCOUNTS = 60;
+    private static final int CHECKING_ACCOUNTS = 10;
+
+    @After
+    public void tearDown() {
+        clearAccountsRepository();
+    }
+
+    private void clearAccountsRepository() {
+        for (AccountModel account : AccountsRepository.INSTANCE.getAll()) {
+            AccountsRepository.INSTANCE.remove(account.getId());
+        }
+    }
+
+    @Test
+    public void lazyCapitalizationMatchesEagerRunsOnRandomWorkloads() {
+        for (long seed = 1; seed <= 5; seed++) {
+            List<String> eager = run(seed, false);
+            List<String> lazy = run(seed, true);
+            assertEquals("Seed " + seed, eager, lazy);
+        }
+    }
+
+    // Replays the same random mix of month ends, credits, withdrawals and balance checks and returns what every
+    // operation observed followed by the final state of each savings account.
+    private List<String> run(long seed, boolean lazy) {
+        seedBook(seed);
+        Random random = new Random(seed * 31);
+        SavingsManagerService savingsManagerService = new SavingsManagerService(new ForkJoinPool(2), 8, true);
+        TransactionManagerService transactionManagerService = new TransactionManagerService();
+        List<String> trace = new ArrayList<>();
+        if (lazy) {
+            savingsManagerService.enableLazyCapitalization();
+        }
+        try {
+            for (int i = 0; i < 3000; i++) {
+                String savings = "lazySavings" + random.nextInt(SAVINGS_ACCOUNTS);
+                int operation = random.nextInt(100);
+                if (operation < 4) {
+                    long scanned = savingsManagerService.passTime().getAccountsScanned();
+                    if (lazy) {
+                        assertEquals(0, scanned);
+                    }
+                } else if (operation < 50) {
+                    String checking = "lazyChecking" + random.nextInt(CHECKING_ACCOUNTS);
+                    trace.add(transactionManagerService.tryTransfer(checking, savings, new MoneyModel(random.nextInt(1, 50_000) / 100.0, CurrencyType.RON))
+                            .isAccepted() + "");
+                } else if (operation < 70) {
+                    CurrencyType currency = AccountsRepository.INSTANCE.get(savings).getBalance().getCurrency();
+                    TransactionResult result = transactionManagerService.tryWithdraw(savings, new MoneyModel(random.nextInt(1, 200_000) / 100.0, currency));
+                    trace.add(result.isAccepted() ? "withdrawn" : result.getRejectionReason().name());
+                } else {
+                    trace.add(savings + "=" + transactionManagerService.checkFunds(savings).getMinorUnits());
+                }
+            }
+        } finally {
+            if (lazy) {
+                savingsManagerService.disableLazyCapitalization();
+            }
+        }
+
+        for (int i = 0; i < SAVINGS_ACCOUNTS; i++) {
+            SavingsAccountModel account = (SavingsAccountModel) AccountsRepository.INSTANCE.get("lazySavings" + i);
+            trace.add(account.getId() + " " + account.getBalance().getMinorUnits() + " " + account.getLastInterestAppliedDate());
+        }
+        return trace;
+    }
+
+    private void seedBook(long seed) {
+        clearAccountsRepository();
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < SAVINGS_ACCOUNTS; i++) {
+            AccountModel account = new SavingsAccountModel("lazySavings" + i,
+                    new MoneyModel(random.nextInt(0, 1_000_000) / 100.0, random.nextBoolean() ? CurrencyType.RON : CurrencyType.EUR),
+                    new ArrayList<>(),
+                    random.nextBoolean() ? InterestRate.ONE_MONTH_ACCOUNT : InterestRate.SIX_MONTH_ACCOUNT,
+                    random.nextBoolean() ? CapitalizationFrequency.MONTHLY : CapitalizationFrequency.QUARTERLY,
+                    today.minusMonths(random.nextInt(0, 4)));
+            AccountsRepository.INSTANCE.add(account.getId(), account);
+        }
+        for (int i = 0; i < CHECKING_ACCOUNTS; i++) {
+            AccountModel account = new CheckingAccountModel("lazyChecking" + i, new MoneyModel(10_000_000, CurrencyType.RON), new ArrayList<>(), card1);
+            AccountsRepository.INSTANCE.add(account.getId(), account);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package test.java;
+
+import main.java.repository.LongKeyedMap;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LongKeyedMapTest {
+
+    @Test
+    public void entriesSurviveGrowthAndRemoval() {
+        LongKeyedMap<String> map = new LongKeyedMap<>();
+        for (long key = 1; key <= 100_000; key++) {
+            assertNull(map.put(key * 7919, "v" + key));
+        }
+        for (long key = 1; key <= 100_000; key += 2) {
+            assertEquals("v" + key, map.remove(key * 7919));
+        }
+
+        assertEquals(50_000, map.size());
+        for (long key = 1; key <= 100_000; key++) {
+            assertEquals(key % 2 == 0 ? "v" + key : null, map.get(key * 7919));
+        }
+
+        assertNull(map.put(7919, "again"));
+        assertEquals("again", map.put(7919, "replaced"));
+        assertFalse(map.remove(7919, "again"));
+        assertTrue(map.remove(7919, "replaced"));
+        assertEquals(50_000, map.size());
+    }
+
+    @Test
+    public void tombstonesDoNotFillTheTable() {
+        LongKeyedMap<Long> map = new LongKeyedMap<>(4);
+        for (long key = 1; key <= 1_000_000; key++) {
+            map.put(key, key);
+            map.remove(key);
+        }
+        assertEquals(0, map.size());
+        assertNull(map.get(999_999));
+    }
+}
@@ -0,0 +1,123 @@
+package test.java;
+
+import main.java.domain.AccountIdDictionary;
+import main.java.domain.AccountModel;
+import main.java.domain.CapitalizationFrequency;
+import main.java.domain.CardModel;
+import main.java.domain.CheckingAccountModel;
+import main.java.domain.CurrencyType;
+import main.java.domain.InterestRate;
+import main.java.domain.MoneyModel;
+import main.java.domain.SavingsAccountModel;
+import main.java.repository.AccountHandleIndex;
+import main.java.repository.InterestDueIndex;
+import main.java.repository.MappedAccountStore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+
+import static main.java.seed.CardsSeedData.card1;
+import static org.junit.Assert.*;
+
+public class MappedAccountStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void balancesAndSavingsStateSurviveReopening() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("accounts.bin");
+        LocalDate today = LocalDate.now();
+
+        try (MappedAccountStore store = MappedAccountStore.open(file)) {
+            for (int i = 0; i < 5000; i++) {
+                store.add("checking" + i, new CheckingAccountModel("checking" + i, new MoneyModel(i, CurrencyType.RON), new ArrayList<>(), card1));
+            }
+            store.add("savings", new SavingsAccountModel("savings", new MoneyModel(1000, CurrencyType.EUR), new ArrayList<>(),
+                    InterestRate.THREE_MONTH_ACCOUNT, CapitalizationFrequency.QUARTERLY, today));
+
+            store.get("checking42").getBalance().add(58);
+            store.get("savings").getBalance().applyRate(InterestRate.THREE_MONTH_ACCOUNT);
+            assertTrue(store.remove("checking7"));
+
+            assertEquals(5000, store.size());
+            assertEquals(4258, store.get("checking42").getBalance().getMinorUnits());
+            assertEquals(card1, ((CheckingAccountModel) store.get("checking1")).getAssociatedCard());
+            assertEquals(store.get("checking1"), store.get("checking1"));
+        }
+
+        try (MappedAccountStore store = MappedAccountStore.open(file)) {
+            assertEquals(5000, store.size());
+            assertFalse(store.exist("checking7"));
+            CardModel card = ((CheckingAccountModel) store.get("checking1")).getAssociatedCard();
+            assertEquals(card1.getCardNumber(), card.getCardNumber());
+            assertEquals(card1.getCardHolderName(), card.getCardHolderName());
+            assertEquals(card1.getExpirationDate(), card.getExpirationDate());
+            assertEquals(card1.getDailyWithdrawalLimit(), card.getDailyWithdrawalLimit(), 0);
+            assertEquals(card1.isActive(), card.isActive());
+            assertSame(card, ((CheckingAccountModel) store.get("checking1")).getAssociatedCard());
+            assertEquals(4258, store.get("checking42").getBalance().getMinorUnits());
+            assertEquals(4999 * 100, store.get("checking4999").getBalance().getMinorUnits());
+
+            SavingsAccountModel savings = (SavingsAccountModel) store.get("savings");
+            assertEquals(105500, savings.getBalance().getMinorUnits());
+            assertEquals(CurrencyType.EUR, savings.getBalance().getCurrency());
+            assertEquals(CapitalizationFrequency.QUARTERLY, savings.getInterestFrequency());
+            assertEquals(today, savings.getLastInterestAppliedDate());
+            assertEquals(InterestRate.THREE_MONTH_ACCOUNT, savings.getInterest(), 0);
+            assertEquals(5000, store.stream().count());
+        }
+    }
+
+    @Test
+    public void viewsKeepTheInterestDueIndexUpToDate() throws Exception {
+        LocalDate today = LocalDate.now();
+        try (MappedAccountStore store = MappedAccountStore.open(folder.getRoot().toPath().resolve("accounts.bin"))) {
+            InterestDueIndex index = new InterestDueIndex();
+            store.addListener(index);
+            store.add("savings", new SavingsAccountModel("savings", new MoneyModel(1000, CurrencyType.RON), new ArrayList<>(),
+                    InterestRate.ONE_MONTH_ACCOUNT, CapitalizationFrequency.MONTHLY, today));
+
+            AccountModel view = store.get("savings");
+            assertTrue(index.getDueAccounts(YearMonth.from(today).plusMonths(1)).contains(view));
+
+            ((SavingsAccountModel) store.get("savings")).setLastInterestAppliedDate(today.plusMonths(1));
+            assertFalse(index.getDueAccounts(YearMonth.from(today).plusMonths(1)).contains(view));
+            assertTrue(index.getDueAccounts(YearMonth.from(today).plusMonths(2)).contains(view));
+
+            store.remove("savings");
+            assertTrue(index.getDueAccounts(YearMonth.from(today).plusMonths(2)).isEmpty());
+        }
+    }
+
+    @Test
+    public void handleIndexFollowsRemovalsAndAccountsOfEarlierRuns() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("accounts.bin");
+
+        try (MappedAccountStore store = MappedAccountStore.open(file)) {
+            AccountHandleIndex index = new AccountHandleIndex(store);
+            store.addListener(index);
+            store.add("kept", new CheckingAccountModel("kept", new MoneyModel(10, CurrencyType.RON), new ArrayList<>(), null));
+            store.add("removed", new CheckingAccountModel("removed", new MoneyModel(20, CurrencyType.RON), new ArrayList<>(), null));
+            int removedHandle = AccountIdDictionary.INSTANCE.find("removed");
+
+            assertEquals(store.get("removed"), index.get(removedHandle));
+            assertTrue(store.remove("removed"));
+            assertNull(index.get(removedHandle));
+        }
+
+        try (MappedAccountStore store = MappedAccountStore.open(file)) {
+            AccountHandleIndex index = new AccountHandleIndex(store);
+            store.addListener(index);
+            AccountModel kept = index.get(AccountIdDictionary.INSTANCE.find("kept"));
+            assertNotNull(kept);
+            assertEquals(1000, kept.getBalance().getMinorUnits());
+            assertNull(index.get(AccountIdDictionary.INSTANCE.find("removed")));
+        }
+    }
+}
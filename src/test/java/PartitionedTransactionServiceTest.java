@@ -0,0 +1,146 @@
+package test.java;
+
+import main.java.domain.*;
+import main.java.repository.AccountsRepository;
+import main.java.services.PartitionedTransactionService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static main.java.seed.CardsSeedData.card1;
+import static org.junit.Assert.*;
+
+public class PartitionedTransactionServiceTest {
+
+    private static final int ACCOUNTS = 16;
+    private static final double INITIAL_BALANCE = 1000;
+
+    private List<String> accountIds;
+
+    @Before
+    public void setUp() {
+        clearAccountsRepository();
+        accountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            AccountModel account = new CheckingAccountModel("partitionedAccount" + i, new MoneyModel(INITIAL_BALANCE, CurrencyType.RON),
+                    new ArrayList<>(), card1);
+            AccountsRepository.INSTANCE.add(account.getId(), account);
+            accountIds.add(account.getId());
+        }
+    }
+
+    @After
+    public void tearDown() {
+        clearAccountsRepository();
+    }
+
+    private void clearAccountsRepository() {
+        for (AccountModel account : AccountsRepository.INSTANCE.getAll()) {
+            AccountsRepository.INSTANCE.remove(account.getId());
+        }
+    }
+
+    @Test
+    public void rejectionsAreReportedAsResults() {
+        try (PartitionedTransactionService service = new PartitionedTransactionService(4, 64)) {
+            String from = accountIds.get(0);
+            String to = accountIds.get(1);
+
+            assertEquals(RejectionReason.INSUFFICIENT_FUNDS, service.transfer(from, to, new MoneyModel(1001, CurrencyType.RON)).join().getRejectionReason());
+            assertEquals(RejectionReason.SAME_ACCOUNT, service.transfer(from, from, new MoneyModel(1, CurrencyType.RON)).join().getRejectionReason());
+            assertEquals(RejectionReason.UNKNOWN_ACCOUNT, service.withdraw("missing", new MoneyModel(1, CurrencyType.RON)).join().getRejectionReason());
+            assertEquals(RejectionReason.CURRENCY_MISMATCH, service.withdraw(from, new MoneyModel(1, CurrencyType.EUR)).join().getRejectionReason());
+
+            assertTrue(service.transfer(from, to, new MoneyModel(100, CurrencyType.RON)).join().isAccepted());
+            assertTrue(service.withdraw(from, new MoneyModel(100, CurrencyType.RON)).join().isAccepted());
+        }
+
+        assertEquals(800, AccountsRepository.INSTANCE.get(accountIds.get(0)).getBalance().getAmount(), 0);
+        assertEquals(1100, AccountsRepository.INSTANCE.get(accountIds.get(1)).getBalance().getAmount(), 0);
+    }
+
+    @Test
+    public void aCreditThatFailsIsRefundedToTheSource() {
+        try (PartitionedTransactionService service = new PartitionedTransactionService(4, 64)) {
+            String from = accountIds.get(0);
+            String to = "brokenTarget";
+            for (int i = 0; service.partitionOf(to) == service.partitionOf(from); i++) {
+                to = "brokenTarget" + i;
+            }
+            AccountModel target = new CheckingAccountModel(to, new MoneyModel(INITIAL_BALANCE, CurrencyType.RON), new ArrayList<>(), card1) {
+                @Override
+                public TransactionHistory getHistory() {
+                    throw new IllegalStateException("The history is unavailable.");
+                }
+            };
+            AccountsRepository.INSTANCE.add(to, target);
+
+            CompletableFuture<TransactionResult> transfer = service.transfer(from, to, new MoneyModel(100, CurrencyType.RON));
+            try {
+                transfer.join();
+                fail("The transfer should fail when its credit cannot be recorded");
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+
+            AccountModel source = AccountsRepository.INSTANCE.get(from);
+            assertEquals(INITIAL_BALANCE, source.getBalance().getAmount(), 0);
+            assertEquals(INITIAL_BALANCE, target.getBalance().getAmount(), 0);
+            assertEquals(2, source.getTransactions().size());
+        }
+    }
+
+    @Test
+    public void concurrentCrossPartitionTransfersConserveTotalMoney() throws Exception {
+        List<CompletableFuture<TransactionResult>> results = new ArrayList<>();
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try (PartitionedTransactionService service = new PartitionedTransactionService(4, 64)) {
+            List<Future<List<CompletableFuture<TransactionResult>>>> submitted = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                submitted.add(clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    List<CompletableFuture<TransactionResult>> own = new ArrayList<>();
+                    for (int i = 0; i < 20_000; i++) {
+                        own.add(service.transfer(accountIds.get(random.nextInt(ACCOUNTS)), accountIds.get(random.nextInt(ACCOUNTS)),
+                                new MoneyModel(random.nextInt(1, 300), CurrencyType.RON)));
+                    }
+                    return own;
+                }));
+            }
+            for (Future<List<CompletableFuture<TransactionResult>>> future : submitted) {
+                results.addAll(future.get());
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        int accepted = 0;
+        for (CompletableFuture<TransactionResult> result : results) {
+            assertTrue("Closing waits for every accepted command", result.isDone());
+            if (result.join().isAccepted()) {
+                accepted++;
+            }
+        }
+
+        double total = 0;
+        int recordedTransactions = 0;
+        for (String accountId : accountIds) {
+            AccountModel account = AccountsRepository.INSTANCE.get(accountId);
+            assertTrue(account.getBalance().getAmount() >= 0);
+            total += account.getBalance().getAmount();
+            recordedTransactions += account.getTransactions().size();
+        }
+        assertTrue(accepted > 0);
+        assertEquals(ACCOUNTS * INITIAL_BALANCE, total, 0);
+        assertEquals(2 * accepted, recordedTransactions);
+    }
+}
@@ -0,0 +1,85 @@
+package test.java;
+
+import main.java.domain.*;
+import main.java.metrics.LatencyHistogram;
+import main.java.metrics.ServiceMetrics;
+import main.java.repository.AccountsRepository;
+import main.java.services.SavingsManagerService;
+import main.java.services.TransactionManagerService;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static main.java.seed.CardsSeedData.card1;
+import static org.junit.Assert.*;
+
+public class ServiceMetricsTest {
+
+    @Test
+    public void histogramPercentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000_000 * 0.03);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000_000 * 0.03);
+        assertEquals(99_900_000, histogram.getValueAtPercentile(99.9), 99_900_000 * 0.03);
+        assertEquals(7, new LatencyHistogram() {{ record(7); }}.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void transfersAreTimedAndRejectionsCountedByReason() {
+        for (AccountModel account : AccountsRepository.INSTANCE.getAll()) {
+            AccountsRepository.INSTANCE.remove(account.getId());
+        }
+        AccountsRepository.INSTANCE.add("a", new CheckingAccountModel("a", new MoneyModel(10, CurrencyType.RON), new ArrayList<>(), card1));
+        AccountsRepository.INSTANCE.add("b", new CheckingAccountModel("b", new MoneyModel(10, CurrencyType.RON), new ArrayList<>(), card1));
+        TransactionManagerService service = new TransactionManagerService();
+        ServiceMetrics.reset();
+
+        service.transfer("a", "b", new MoneyModel(5, CurrencyType.RON));
+        for (int i = 0; i < 3; i++) {
+            try {
+                service.transfer("a", "b", new MoneyModel(50, CurrencyType.RON));
+                fail("The transfer should have been rejected");
+            } catch (RuntimeException expected) {
+            }
+        }
+        try {
+            service.transfer("a", "a", new MoneyModel(1, CurrencyType.RON));
+            fail("The transfer should have been rejected");
+        } catch (RuntimeException expected) {
+        }
+
+        for (int i = 0; i < 64; i++) {
+            service.checkFunds("a");
+        }
+
+        assertEquals(5, ServiceMetrics.TRANSFER.getCount());
+        assertEquals(5, ServiceMetrics.TRANSFER.getTimedCount());
+        assertEquals(64, ServiceMetrics.CHECK_FUNDS.getCount());
+        assertTrue(ServiceMetrics.CHECK_FUNDS.getTimedCount() < 64);
+        assertEquals(3, ServiceMetrics.TRANSFER.getRejections(RejectionReason.INSUFFICIENT_FUNDS));
+        assertEquals(1, ServiceMetrics.TRANSFER.getRejections(RejectionReason.SAME_ACCOUNT));
+        assertTrue(ServiceMetrics.dumpText().contains("INSUFFICIENT_FUNDS"));
+        assertTrue(ServiceMetrics.dumpJson().contains("\"name\":\"transfer\",\"count\":5"));
+    }
+
+    @Test
+    public void passTimeIsCountedAndTimed() {
+        SavingsManagerService service = new SavingsManagerService();
+        ServiceMetrics.reset();
+
+        service.passTime();
+        service.passTime(2);
+        service.enableLazyCapitalization();
+        service.passTime();
+        service.disableLazyCapitalization();
+
+        assertEquals(4, ServiceMetrics.PASS_TIME.getCount());
+        assertEquals(4, ServiceMetrics.PASS_TIME.getTimedCount());
+        assertTrue(ServiceMetrics.dumpJson().contains("\"name\":\"passTime\",\"count\":4"));
+    }
+}
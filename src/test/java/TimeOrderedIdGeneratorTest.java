@@ -0,0 +1,61 @@
+package test.java;
+
+import main.java.utils.TimeOrderedIdGenerator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class TimeOrderedIdGeneratorTest {
+
+    @Test
+    public void idsAreVersion7AndIncreaseEvenWhenTheClockStepsBack() {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(42, clock::get);
+
+        UUID previous = generator.nextId();
+        assertEquals(7, previous.version());
+        assertEquals(2, previous.variant());
+        assertEquals(1_700_000_000_000L, TimeOrderedIdGenerator.timestampOf(previous));
+
+        for (int i = 0; i < 100_000; i++) {
+            if (i == 50_000) {
+                clock.addAndGet(-5_000);
+            } else if (i % 1000 == 0) {
+                clock.incrementAndGet();
+            }
+            UUID next = generator.nextId();
+            assertTrue(next.compareTo(previous) > 0);
+            previous = next;
+        }
+    }
+
+    @Test
+    public void concurrentThreadsNeverReceiveTheSameId() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                Set<UUID> local = new HashSet<>();
+                for (int i = 0; i < 50_000; i++) {
+                    local.add(generator.nextId());
+                }
+                ids.addAll(local);
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8 * 50_000, ids.size());
+    }
+}
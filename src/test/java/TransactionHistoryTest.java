@@ -0,0 +1,195 @@
+package test.java;
+
+import main.java.domain.CurrencyType;
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionArchive;
+import main.java.domain.TransactionBlock;
+import main.java.domain.TransactionHistory;
+import main.java.domain.TransactionModel;
+import main.java.domain.TransactionPage;
+import main.java.repository.TransactionHistoryStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TransactionHistoryTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TransactionArchive previousArchive;
+    private TransactionHistoryStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        previousArchive = TransactionHistory.getArchive();
+        store = TransactionHistoryStore.open(folder.getRoot().toPath().resolve("history.dat"));
+        TransactionHistory.setArchive(store);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TransactionHistory.awaitSpills();
+        TransactionHistory.setArchive(previousArchive);
+        store.close();
+    }
+
+    @Test
+    public void olderEntriesAreSpilledAndPagedBackInOrder() {
+        TransactionHistory history = new TransactionHistory(16);
+        for (int i = 0; i < 1000; i++) {
+            history.append(transaction(i, START.plusDays(i / 10)));
+        }
+
+        assertEquals(1000, history.size());
+        TransactionHistory.awaitSpills();
+        assertTrue(history.inMemorySize() < 16);
+        assertTrue(store.getSize() > 0);
+
+        List<TransactionModel> all = new ArrayList<>();
+        long cursor = 0;
+        while (cursor != TransactionPage.END) {
+            TransactionPage page = history.page(null, null, cursor, 37);
+            assertTrue(page.getTransactions().size() <= 37);
+            all.addAll(page.getTransactions());
+            cursor = page.getNextCursor();
+        }
+        assertEquals(1000, all.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(i, all.get(i).getAmount().getMinorUnits());
+            assertEquals("from" + i, all.get(i).getFrom());
+            assertEquals("to" + i, all.get(i).getTo());
+        }
+        assertEquals(1000, history.toList().size());
+    }
+
+    @Test
+    public void dateRangeSkipsBlocksOutsideTheRange() {
+        TransactionHistory history = new TransactionHistory(16);
+        for (int i = 0; i < 1000; i++) {
+            history.append(transaction(i, START.plusDays(i / 10)));
+        }
+
+        TransactionPage page = history.page(START.plusDays(50), START.plusDays(51), 0, 100);
+
+        assertEquals(20, page.getTransactions().size());
+        assertEquals(500, page.getTransactions().get(0).getAmount().getMinorUnits());
+        assertEquals(519, page.getTransactions().get(19).getAmount().getMinorUnits());
+        assertEquals(START.plusDays(50), page.getTransactions().get(0).getTimestamp());
+    }
+
+    @Test
+    public void columnsRoundTripThroughTheArchiveAndCanBeScanned() {
+        TransactionHistory history = new TransactionHistory(16);
+        List<TransactionModel> appended = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            CurrencyType currency = CurrencyType.values()[i % CurrencyType.values().length];
+            TransactionModel transaction = new TransactionModel(UUID.randomUUID(), "from" + i, "to" + i,
+                    MoneyModel.ofMinorUnits(i, currency), START.plusDays(i), i / 30);
+            appended.add(transaction);
+            history.append(transaction);
+        }
+
+        List<TransactionModel> read = history.toList();
+        for (int i = 0; i < appended.size(); i++) {
+            TransactionModel expected = appended.get(i);
+            TransactionModel actual = read.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getFrom(), actual.getFrom());
+            assertEquals(expected.getTo(), actual.getTo());
+            assertEquals(expected.getAmount().getMinorUnits(), actual.getAmount().getMinorUnits());
+            assertEquals(expected.getAmount().getCurrency(), actual.getAmount().getCurrency());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(expected.getRateVersion(), actual.getRateVersion());
+        }
+
+        long[] sum = new long[1];
+        history.forEachBlock(block -> {
+            for (int row = 0; row < block.size(); row++) {
+                sum[0] += block.getMinorUnits(row);
+            }
+        });
+        assertEquals(99 * 100 / 2, sum[0]);
+    }
+
+    @Test
+    public void stripedAppendsAreMergedBeforeReadsAndSpilled() throws Exception {
+        TransactionHistory history = new TransactionHistory(16);
+        history.stripeAppends(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int first = t * 500;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = first; i < first + 500; i++) {
+                    history.appendConcurrently(transaction(i, START));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(2000, history.size());
+        long sum = 0;
+        for (TransactionModel transaction : history.toList()) {
+            sum += transaction.getAmount().getMinorUnits();
+        }
+        assertEquals(1999 * 2000 / 2, sum);
+        TransactionHistory.awaitSpills();
+        assertTrue(history.inMemorySize() < 16);
+    }
+
+    @Test
+    public void aSlowArchiveReadDoesNotHoldUpAppends() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionHistory.setArchive(new TransactionArchive() {
+            @Override
+            public long write(TransactionBlock block) {
+                return store.write(block);
+            }
+
+            @Override
+            public TransactionBlock read(long location) {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return store.read(location);
+            }
+        });
+        TransactionHistory history = new TransactionHistory(16);
+        for (int i = 0; i < 100; i++) {
+            history.append(transaction(i, START));
+        }
+        TransactionHistory.awaitSpills();
+
+        Thread reader = Thread.ofPlatform().daemon().start(() -> history.toList());
+        assertTrue(reading.await(10, TimeUnit.SECONDS));
+        Thread writer = Thread.ofPlatform().daemon().start(() -> history.append(transaction(100, START)));
+        writer.join(10_000);
+        assertFalse("The append waited for the archive read", writer.isAlive());
+
+        release.countDown();
+        reader.join();
+        assertEquals(101, history.size());
+    }
+
+    private static TransactionModel transaction(int index, LocalDate date) {
+        return new TransactionModel(UUID.randomUUID(), "from" + index, "to" + index, MoneyModel.ofMinorUnits(index, CurrencyType.RON), date);
+    }
+}
@@ -0,0 +1,337 @@
+package test.java;
+
+import main.java.domain.AccountModel;
+import main.java.domain.CapitalizationFrequency;
+import main.java.domain.CheckingAccountModel;
+import main.java.domain.CurrencyType;
+import main.java.domain.InterestRate;
+import main.java.domain.MoneyModel;
+import main.java.domain.SavingsAccountModel;
+import main.java.domain.Turnover;
+import main.java.repository.AccountSnapshotStore;
+import main.java.repository.AccountsRepository;
+import main.java.repository.Database;
+import main.java.repository.InMemoryDatabase;
+import main.java.repository.MappedAccountStore;
+import main.java.repository.ReplayReport;
+import main.java.repository.SnapshotReport;
+import main.java.repository.TransactionJournal;
+import main.java.services.SavingsManagerService;
+import main.java.services.TransactionManagerService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static main.java.seed.CardsSeedData.card1;
+import static org.junit.Assert.*;
+
+public class TransactionJournalTest {
+
+    private static final int ACCOUNTS = 8;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path journalDirectory;
+
+    @Before
+    public void setUp() {
+        journalDirectory = folder.getRoot().toPath().resolve("journal");
+        for (AccountModel account : AccountsRepository.INSTANCE.getAll()) {
+            AccountsRepository.INSTANCE.remove(account.getId());
+        }
+        seed(AccountsRepository.INSTANCE);
+    }
+
+    private static void seed(Database<AccountModel> accounts) {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            CurrencyType currency = i % 2 == 0 ? CurrencyType.RON : CurrencyType.EUR;
+            accounts.add("journal" + i, new CheckingAccountModel("journal" + i, new MoneyModel(1000, currency), new ArrayList<>(), card1));
+        }
+    }
+
+    @Test
+    public void replayRebuildsBalancesAfterConcurrentTransfers() throws Exception {
+        try (TransactionJournal journal = TransactionJournal.open(journalDirectory)) {
+            TransactionManagerService service = new TransactionManagerService(journal);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 500; i++) {
+                        String from = "journal" + random.nextInt(ACCOUNTS);
+                        try {
+                            if (i % 10 == 0) {
+                                AccountModel account = AccountsRepository.INSTANCE.get(from);
+                                service.withdraw(from, new MoneyModel(1, account.getBalance().getCurrency()));
+                            } else {
+                                service.transfer(from, "journal" + random.nextInt(ACCOUNTS), new MoneyModel(random.nextInt(1, 50), CurrencyType.RON));
+                            }
+                        } catch (RuntimeException e) {
+                            // rejected operations are not journaled
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            executor.shutdown();
+
+            assertTrue("Concurrent appends should share fsyncs", journal.getFlushCount() < journal.getAppendedCount());
+        }
+
+        InMemoryDatabase<AccountModel> recovered = new InMemoryDatabase<>();
+        seed(recovered);
+        ReplayReport report = TransactionJournal.replay(journalDirectory, recovered);
+
+        assertTrue(report.getEntriesReplayed() > 0);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            assertEquals(AccountsRepository.INSTANCE.get("journal" + i).getBalance().getMinorUnits(),
+                    recovered.get("journal" + i).getBalance().getMinorUnits());
+        }
+    }
+
+    @Test
+    public void tornTailIsIgnoredAndTruncated() throws Exception {
+        try (TransactionJournal journal = TransactionJournal.open(journalDirectory)) {
+            TransactionManagerService service = new TransactionManagerService(journal);
+            service.transfer("journal0", "journal2", new MoneyModel(100, CurrencyType.RON));
+            service.transfer("journal0", "journal2", new MoneyModel(100, CurrencyType.RON));
+        }
+
+        long validLength;
+        try (FileChannel channel = FileChannel.open(journalDirectory.resolve("journal-000001.log"), StandardOpenOption.WRITE)) {
+            validLength = channel.size();
+            channel.truncate(validLength - 3);
+        }
+
+        InMemoryDatabase<AccountModel> recovered = new InMemoryDatabase<>();
+        seed(recovered);
+        assertEquals(1, TransactionJournal.replay(journalDirectory, recovered).getEntriesReplayed());
+        assertEquals(90000, recovered.get("journal0").getBalance().getMinorUnits());
+
+        try (TransactionJournal journal = TransactionJournal.open(journalDirectory)) {
+            new TransactionManagerService(journal).withdraw("journal0", new MoneyModel(10, CurrencyType.RON));
+        }
+        InMemoryDatabase<AccountModel> reopened = new InMemoryDatabase<>();
+        seed(reopened);
+        assertEquals(2, TransactionJournal.replay(journalDirectory, reopened).getEntriesReplayed());
+    }
+
+    @Test
+    public void snapshotTakenDuringTransfersPlusJournalTailRestoresState() throws Exception {
+        SavingsAccountModel savings = new SavingsAccountModel("journalSavings", new MoneyModel(1000, CurrencyType.RON), new ArrayList<>(),
+                InterestRate.ONE_MONTH_ACCOUNT, CapitalizationFrequency.MONTHLY, LocalDate.now());
+        AccountsRepository.INSTANCE.add(savings.getId(), savings);
+
+        try (TransactionJournal journal = TransactionJournal.open(journalDirectory)) {
+            TransactionManagerService service = new TransactionManagerService(journal);
+            SavingsManagerService savingsService = new SavingsManagerService(ForkJoinPool.commonPool(), 16, true, journal);
+            AccountSnapshotStore snapshotStore = new AccountSnapshotStore(AccountsRepository.INSTANCE, journal);
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        try {
+                            service.transfer("journal" + random.nextInt(ACCOUNTS), "journal" + random.nextInt(ACCOUNTS),
+                                    new MoneyModel(random.nextInt(1, 50), CurrencyType.RON));
+                        } catch (RuntimeException e) {
+                            // rejected transfers are not journaled
+                        }
+                    }
+                }));
+            }
+
+            savingsService.passTime();
+            SnapshotReport first = snapshotStore.takeSnapshot();
+            service.transfer("journal0", "journalSavings", new MoneyModel(10, CurrencyType.RON));
+            savingsService.passTime();
+            SnapshotReport second = snapshotStore.takeSnapshot();
+            Thread.sleep(50);
+            running.set(false);
+            for (Future<?> result : results) {
+                result.get();
+            }
+            executor.shutdown();
+
+            assertEquals(first.getSegment() + 1, second.getSegment());
+            assertFalse("Segments covered by the snapshot are deleted",
+                    Files.exists(journalDirectory.resolve(String.format("journal-%06d.log", first.getSegment()))));
+        }
+
+        InMemoryDatabase<AccountModel> recovered = new InMemoryDatabase<>();
+        seed(recovered);
+        AccountSnapshotStore.loadLatest(journalDirectory, recovered);
+        TransactionJournal.replay(journalDirectory, recovered);
+
+        for (AccountModel account : AccountsRepository.INSTANCE.values()) {
+            assertEquals(account.getBalance().getMinorUnits(), recovered.get(account.getId()).getBalance().getMinorUnits());
+        }
+        SavingsAccountModel recoveredSavings = (SavingsAccountModel) recovered.get("journalSavings");
+        assertEquals(savings.getLastInterestAppliedDate(), recoveredSavings.getLastInterestAppliedDate());
+        assertEquals(CapitalizationFrequency.MONTHLY, recoveredSavings.getInterestFrequency());
+        assertEquals(card1.getCardNumber(), ((CheckingAccountModel) recovered.get("journal0")).getAssociatedCard().getCardNumber());
+    }
+
+    @Test
+    public void replayIntoTheRepositoryRebuildsTheDailyRollups() throws Exception {
+        TransactionManagerService service;
+        try (TransactionJournal journal = TransactionJournal.open(journalDirectory)) {
+            service = new TransactionManagerService(journal);
+            service.transfer("journal0", "journal2", new MoneyModel(100, CurrencyType.RON));
+            service.withdraw("journal0", new MoneyModel(10, CurrencyType.RON));
+        }
+        LocalDate today = LocalDate.now();
+
+        for (AccountModel account : AccountsRepository.INSTANCE.getAll()) {
+            AccountsRepository.INSTANCE.remove(account.getId());
+        }
+        seed(AccountsRepository.INSTANCE);
+        TransactionJournal.replay(journalDirectory, AccountsRepository.INSTANCE);
+
+        Turnover turnover = service.turnover("journal0", today, today);
+        assertEquals(11000, turnover.getDebits().getMinorUnits());
+        assertEquals(2, turnover.getTransactionCount());
+        assertEquals(10000, service.turnover("journal2", today, today).getCredits().getMinorUnits());
+        assertEquals(100000, service.balanceAsOf("journal0", today.minusDays(1)).getMinorUnits());
+    }
+
+    @Test
+    public void rollupsOfARestoredAccountStartAfterItsSnapshot() throws Exception {
+        TransactionManagerService service;
+        try (TransactionJournal journal = TransactionJournal.open(journalDirectory)) {
+            service = new TransactionManagerService(journal);
+            service.transfer("journal0", "journal2", new MoneyModel(100, CurrencyType.RON));
+            new AccountSnapshotStore(AccountsRepository.INSTANCE, journal).takeSnapshot();
+        }
+        LocalDate today = LocalDate.now();
+
+        for (AccountModel account : AccountsRepository.INSTANCE.getAll()) {
+            AccountsRepository.INSTANCE.remove(account.getId());
+        }
+        seed(AccountsRepository.INSTANCE);
+        AccountSnapshotStore.loadLatest(journalDirectory, AccountsRepository.INSTANCE);
+        TransactionJournal.replay(journalDirectory, AccountsRepository.INSTANCE);
+
+        assertEquals(today.plusDays(1), service.turnover("journal0", null, null).getFrom());
+        assertEquals(0, service.turnover("journal0", null, null).getTransactionCount());
+        try {
+            service.turnover("journal0", today, null);
+            fail("The transfer before the snapshot is not in the rollups");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(today.plusDays(1).toString()));
+        }
+        try {
+            service.balanceAsOf("journal0", today.minusDays(1));
+            fail("The balance before the snapshot is not in the rollups");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void replayingIntoAMappedStoreTwiceAppliesEveryEntryOnce() throws Exception {
+        try (TransactionJournal journal = TransactionJournal.open(journalDirectory)) {
+            TransactionManagerService service = new TransactionManagerService(journal);
+            for (int i = 0; i < 20; i++) {
+                service.transfer("journal" + (i % 4) * 2, "journal" + ((i + 1) % 4) * 2, new MoneyModel(i + 1, CurrencyType.RON));
+            }
+        }
+
+        Path storeFile = folder.getRoot().toPath().resolve("accounts.bin");
+        try (MappedAccountStore store = MappedAccountStore.open(storeFile)) {
+            seed(store);
+            assertEquals(20, TransactionJournal.replay(journalDirectory, store).getEntriesReplayed());
+        }
+        try (MappedAccountStore store = MappedAccountStore.open(storeFile)) {
+            TransactionJournal.replay(journalDirectory, store);
+            for (int i = 0; i < ACCOUNTS; i++) {
+                assertEquals(AccountsRepository.INSTANCE.get("journal" + i).getBalance().getMinorUnits(),
+                        store.get("journal" + i).getBalance().getMinorUnits());
+            }
+        }
+    }
+
+    @Test
+    public void everyPrefixOfTheJournalIsConsistent() throws Exception {
+        // journal2 is drained as fast as journal0 fills it, so every drain depends on the credits before it.
+        try (TransactionJournal journal = TransactionJournal.open(journalDirectory)) {
+            TransactionManagerService service = new TransactionManagerService(journal);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            Future<?> credits = executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    service.transfer("journal0", "journal2", new MoneyModel(1, CurrencyType.RON));
+                }
+            });
+            Future<?> drains = executor.submit(() -> {
+                while (!credits.isDone()) {
+                    long balance = AccountsRepository.INSTANCE.get("journal2").getBalance().getMinorUnits();
+                    if (balance > 0) {
+                        service.transfer("journal2", "journal4", MoneyModel.ofMinorUnits(balance, CurrencyType.RON));
+                    }
+                }
+            });
+            credits.get();
+            drains.get();
+            executor.shutdown();
+        }
+
+        byte[] segment = Files.readAllBytes(journalDirectory.resolve("journal-000001.log"));
+        int records = 0;
+        for (int length = 0; length < segment.length; ) {
+            length += 8 + ByteBuffer.wrap(segment, length, 4).getInt();
+            records++;
+            Path prefixDirectory = folder.newFolder("prefix" + records).toPath();
+            Files.write(prefixDirectory.resolve("journal-000001.log"), Arrays.copyOf(segment, length));
+
+            InMemoryDatabase<AccountModel> recovered = new InMemoryDatabase<>();
+            seed(recovered);
+            TransactionJournal.replay(prefixDirectory, recovered);
+            assertTrue("Record " + records + " debits money that no earlier record credited",
+                    recovered.get("journal2").getBalance().getMinorUnits() >= 0);
+        }
+        assertTrue(records > 200);
+    }
+
+    @Test
+    public void interestReplaysOntoASavingsAccountThatWasNeverCapitalized() throws Exception {
+        SavingsAccountModel savings = new SavingsAccountModel("journalSavings", new MoneyModel(1000, CurrencyType.RON), new ArrayList<>(),
+                InterestRate.ONE_MONTH_ACCOUNT, CapitalizationFrequency.MONTHLY, LocalDate.now());
+        AccountsRepository.INSTANCE.add(savings.getId(), savings);
+        try (TransactionJournal journal = TransactionJournal.open(journalDirectory)) {
+            new SavingsManagerService(ForkJoinPool.commonPool(), 16, true, journal).passTime();
+        }
+
+        InMemoryDatabase<AccountModel> recovered = new InMemoryDatabase<>();
+        recovered.add("journalSavings", new SavingsAccountModel("journalSavings", new MoneyModel(1000, CurrencyType.RON), new ArrayList<>(),
+                InterestRate.ONE_MONTH_ACCOUNT, CapitalizationFrequency.MONTHLY, null));
+        assertEquals(1, TransactionJournal.replay(journalDirectory, recovered).getEntriesReplayed());
+
+        SavingsAccountModel recoveredSavings = (SavingsAccountModel) recovered.get("journalSavings");
+        assertEquals(savings.getBalance().getMinorUnits(), recoveredSavings.getBalance().getMinorUnits());
+        assertEquals(savings.getLastInterestAppliedDate(), recoveredSavings.getLastInterestAppliedDate());
+    }
+}
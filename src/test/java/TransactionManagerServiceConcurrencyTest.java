@@ -0,0 +1,210 @@
+package test.java;
+
+import main.java.domain.AccountModel;
+import main.java.domain.CheckingAccountModel;
+import main.java.domain.CurrencyType;
+import main.java.domain.DailyRollup;
+import main.java.domain.DailyRollups;
+import main.java.domain.MoneyModel;
+import main.java.domain.TransactionResult;
+import main.java.domain.Turnover;
+import main.java.repository.AccountsRepository;
+import main.java.services.TransactionFrontEnd;
+import main.java.services.TransactionManagerService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static main.java.seed.CardsSeedData.card1;
+import static org.junit.Assert.*;
+
+public class TransactionManagerServiceConcurrencyTest {
+
+    private static final int ACCOUNTS = 16;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 20_000;
+    private static final double INITIAL_BALANCE = 1000;
+
+    private TransactionManagerService transactionManagerService;
+    private List<String> accountIds;
+
+    @Before
+    public void setUp() {
+        transactionManagerService = new TransactionManagerService();
+        clearAccountsRepository();
+
+        accountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            AccountModel account = new CheckingAccountModel("stressAccount" + i, new MoneyModel(INITIAL_BALANCE, CurrencyType.RON),
+                    new ArrayList<>(), card1);
+            AccountsRepository.INSTANCE.add(account.getId(), account);
+            accountIds.add(account.getId());
+        }
+    }
+
+    @After
+    public void tearDown() {
+        clearAccountsRepository();
+    }
+
+    private void clearAccountsRepository() {
+        for (AccountModel account : AccountsRepository.INSTANCE.getAll()) {
+            AccountsRepository.INSTANCE.remove(account.getId());
+        }
+    }
+
+    @Test
+    public void concurrentTransfersConserveTotalMoney() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int successful = 0;
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    String from = accountIds.get(random.nextInt(ACCOUNTS));
+                    String to = accountIds.get(random.nextInt(ACCOUNTS));
+                    try {
+                        transactionManagerService.transfer(from, to, new MoneyModel(random.nextInt(1, 300), CurrencyType.RON));
+                        successful++;
+                    } catch (RuntimeException e) {
+                        // rejected transfers (same account, insufficient funds) are expected under contention
+                    }
+                }
+                return successful;
+            }));
+        }
+
+        start.countDown();
+        int successfulTransfers = 0;
+        for (Future<Integer> result : results) {
+            successfulTransfers += result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        double total = 0;
+        int recordedTransactions = 0;
+        long rolledUpTransactions = 0;
+        for (String accountId : accountIds) {
+            AccountModel account = AccountsRepository.INSTANCE.get(accountId);
+            assertTrue("No account may end up with a negative balance", account.getBalance().getAmount() >= 0);
+            total += account.getBalance().getAmount();
+            recordedTransactions += account.getTransactions().size();
+
+            DailyRollups rollups = AccountsRepository.ROLLUP_INDEX.find(account);
+            if (rollups != null) {
+                List<DailyRollup> days = rollups.between(null, null);
+                assertEquals("The last closing balance is the balance", account.getBalance().getMinorUnits(),
+                        days.get(days.size() - 1).getClosingBalance().getMinorUnits());
+                rolledUpTransactions += rollups.turnover(null, null).getTransactionCount();
+            }
+        }
+
+        assertTrue(successfulTransfers > 0);
+        assertEquals("Transfers must neither create nor destroy money", ACCOUNTS * INITIAL_BALANCE, total, 0);
+        assertEquals("Every transfer is recorded on both sides", 2 * successfulTransfers, recordedTransactions);
+        assertEquals("Every transfer is rolled up on both sides", 2 * successfulTransfers, rolledUpTransactions);
+    }
+
+    @Test
+    public void frontEndCompletesEveryRequestAndConservesTotalMoney() {
+        List<CompletableFuture<TransactionResult>> transfers = new ArrayList<>();
+        try (TransactionFrontEnd frontEnd = new TransactionFrontEnd(transactionManagerService, 1_000)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 50_000; i++) {
+                String from = accountIds.get(random.nextInt(ACCOUNTS));
+                String to = accountIds.get(random.nextInt(ACCOUNTS));
+                transfers.add(frontEnd.transfer(from, to, new MoneyModel(random.nextInt(1, 300), CurrencyType.RON)));
+            }
+
+            try {
+                frontEnd.checkFunds("missing").join();
+                fail("The balance of an unknown account should not be returned");
+            } catch (CompletionException expected) {
+            }
+        }
+
+        int successfulTransfers = 0;
+        for (CompletableFuture<TransactionResult> transfer : transfers) {
+            assertTrue(transfer.isDone());
+            if (transfer.join().isAccepted()) {
+                successfulTransfers++;
+            }
+        }
+
+        double total = 0;
+        int recordedTransactions = 0;
+        for (String accountId : accountIds) {
+            AccountModel account = AccountsRepository.INSTANCE.get(accountId);
+            total += account.getBalance().getAmount();
+            recordedTransactions += account.getTransactions().size();
+        }
+
+        assertTrue(successfulTransfers > 0);
+        assertEquals(ACCOUNTS * INITIAL_BALANCE, total, 0);
+        assertEquals(2 * successfulTransfers, recordedTransactions);
+    }
+
+    @Test
+    public void stripedHotAccountStaysConsistentUnderConcurrentCreditsAndDebits() throws Exception {
+        AccountModel hotAccount = AccountsRepository.INSTANCE.get(accountIds.get(0));
+        hotAccount.stripeBalance(8);
+        long initialMinorUnits = hotAccount.getBalance().getMinorUnits();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        AtomicLong accepted = new AtomicLong();
+
+        for (int t = 0; t < THREADS; t++) {
+            boolean debiting = t == 0;
+            results.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    String other = accountIds.get(random.nextInt(1, ACCOUNTS));
+                    MoneyModel amount = new MoneyModel(random.nextInt(1, 300), CurrencyType.RON);
+                    TransactionResult result = debiting
+                            ? transactionManagerService.tryTransfer(hotAccount.getId(), other, amount)
+                            : transactionManagerService.tryTransfer(other, hotAccount.getId(), amount);
+                    if (result.isAccepted()) {
+                        accepted.incrementAndGet();
+                    }
+                    assertTrue(hotAccount.getBalance().getMinorUnits() >= 0);
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        double total = 0;
+        for (String accountId : accountIds) {
+            total += AccountsRepository.INSTANCE.get(accountId).getBalance().getAmount();
+        }
+        assertTrue(hotAccount.hasStripedBalance());
+        assertEquals("Striped credits must neither create nor destroy money", ACCOUNTS * INITIAL_BALANCE, total, 0);
+        assertEquals(transactionManagerService.checkFunds(hotAccount.getId()).getMinorUnits(), hotAccount.getBalance().getMinorUnits());
+
+        // The credits buffered without the history's and rollups' locks are all merged on read.
+        assertEquals(accepted.get(), hotAccount.getHistory().size());
+        Turnover turnover = transactionManagerService.turnover(hotAccount.getId(), null, null);
+        assertEquals(accepted.get(), turnover.getTransactionCount());
+        assertEquals(hotAccount.getBalance().getMinorUnits() - initialMinorUnits,
+                turnover.getCredits().getMinorUnits() - turnover.getDebits().getMinorUnits());
+    }
+}